@@ -0,0 +1,76 @@
+package com.ticketbooking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the threading modes: a burst of concurrent chats, each waiting on the
+ * stub model, run through the AI executor on platform or virtual threads. The gateway
+ * is opened wide so the executor is the only limit; on platform threads a burst takes
+ * about ceil(chats / ai.executor.pool-size) model latencies, on virtual threads about one.
+ * Virtual threads need Java 21, on older runtimes both modes run on the platform pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AiConcurrencyBenchmark {
+    
+    private static final long STUB_LATENCY_MS = 200;
+    
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+    
+    @Param({"50", "500", "2000"})
+    public int concurrentChats;
+    
+    private ConfigurableApplicationContext context;
+    private AIBookingService aiBookingService;
+    private final AtomicLong chats = new AtomicLong();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "ai.stub.latency-ms=" + STUB_LATENCY_MS,
+                "ai.executor.queue-capacity=" + concurrentChats,
+                "ai.gateway.max-in-flight=" + concurrentChats,
+                "ai.gateway.max-queued=" + concurrentChats,
+                "ai.gateway.requests-per-minute=100000000",
+                "ai.gateway.burst=" + concurrentChats);
+        aiBookingService = context.getBean(AIBookingService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Pinning reported by VirtualThreadPinningMonitor during the trial
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        for (Timer pinned : registry.find("threads.virtual.pinned").timers()) {
+            System.out.printf("%npinned %d times for %.0f ms at %s%n", pinned.count(),
+                    pinned.totalTime(TimeUnit.MILLISECONDS), pinned.getId().getTag("site"));
+        }
+        context.close();
+    }
+    
+    @Benchmark
+    public List<String> burstOfChats() {
+        List<CompletableFuture<String>> replies = new ArrayList<>(concurrentChats);
+        for (int i = 0; i < concurrentChats; i++) {
+            long chat = chats.incrementAndGet();
+            // Fresh conversation and query so neither memory nor the response cache answers it
+            replies.add(aiBookingService.processNaturalLanguageQueryAsync("load-" + chat,
+                    "any theater shows worth seeing, question " + chat));
+        }
+        return replies.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prompt building and the full natural-language query path against the stub model.
+ * Queries are made unique so the response cache does not answer them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AiOrchestrationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int eventCount;
+    
+    @Param({"0", "50"})
+    public long stubLatencyMs;
+    
+    private ConfigurableApplicationContext context;
+    private AIBookingService aiBookingService;
+    private List<Event> events;
+    private final AtomicLong queries = new AtomicLong();
+    private final String conversationId = UUID.randomUUID().toString();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ai.stub.latency-ms=" + stubLatencyMs);
+        aiBookingService = context.getBean(AIBookingService.class);
+        EventService eventService = context.getBean(EventService.class);
+        events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(eventService.createEvent(BenchmarkContext.event(i, 1000)));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public String formatEventsForAI() {
+        return aiBookingService.formatEventsForAI(events, "rock concert this weekend near Venue 42");
+    }
+    
+    @Benchmark
+    public String processNaturalLanguageQuery() {
+        return aiBookingService.processNaturalLanguageQuery(conversationId,
+                "any theater shows at Venue " + queries.incrementAndGet() % 1000 + " Hall for query " + queries.get());
+    }
+}
@@ -0,0 +1,58 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.TicketBookingAiApplication;
+import com.ticketbooking.entity.Event;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without the web layer for benchmarks: in-memory H2,
+ * the stub chat model instead of OpenAI and quiet logging
+ */
+final class BenchmarkContext {
+    
+    static final String[] CATEGORIES = {"CONCERT", "SPORTS", "THEATER", "CONFERENCE", "FESTIVAL"};
+    
+    private BenchmarkContext() {
+    }
+    
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "ai.stub.enabled=true",
+                "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "spring.h2.console.enabled=false",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                "logging.level.root=WARN",
+                "logging.level.com.ticketbooking=WARN",
+                "logging.level.dev.langchain4j=WARN",
+                "logging.level.org.springframework.ai=WARN"));
+        all.addAll(List.of(properties));
+        // Passed as command-line arguments: builder properties are only defaults,
+        // and application.properties would override them
+        return new SpringApplicationBuilder(TicketBookingAiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+    
+    /**
+     * Synthetic event number i: names are unique, venues repeat every 1000 events
+     */
+    static Event event(int i, int seats) {
+        Event event = new Event();
+        event.setName("Benchmark Event " + i + " Live");
+        event.setVenue("Venue " + (i % 1000) + " Hall");
+        event.setEventDate(LocalDateTime.now().plusDays(1 + i % 365));
+        event.setTicketPrice(25.0 + i % 100);
+        event.setTotalSeats(seats);
+        event.setAvailableSeats(seats);
+        event.setDescription("Synthetic event for benchmarks");
+        event.setCategory(CATEGORIES[i % CATEGORIES.length]);
+        return event;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.entity.Event;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.createBooking against one hot event and against many events,
+ * at 1, 8 and 64 threads, plus the entity-to-response mapping. Each iteration also
+ * prints the database commits per second, which BATCH mode coalesces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingBenchmark {
+    
+    @Param({"1", "1000"})
+    public int eventCount;
+    
+    @Param({"MEMORY", "DATABASE", "PESSIMISTIC"})
+    public String inventoryMode;
+    
+    @Param({"DIRECT", "BATCH"})
+    public String writeMode;
+    
+    private ConfigurableApplicationContext context;
+    private Statistics statistics;
+    private long iterationStart;
+    private long commitsAtStart;
+    private long bookingsAtStart;
+    private BookingService bookingService;
+    private long[] eventIds;
+    private Booking booking;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "booking.inventory.mode=" + inventoryMode,
+                "booking.write-mode=" + writeMode,
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        bookingService = context.getBean(BookingService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        EventService eventService = context.getBean(EventService.class);
+        eventIds = new long[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            eventIds[i] = eventService.createEvent(BenchmarkContext.event(i, 1_000_000_000)).getId();
+        }
+        
+        Event event = BenchmarkContext.event(0, 100);
+        event.setId(eventIds[0]);
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setEvent(event);
+        booking.setCustomerName("Jane Doe");
+        booking.setCustomerEmail("jane@example.com");
+        booking.setNumberOfTickets(2);
+        booking.setTotalAmount(2 * event.getTicketPrice());
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setBookingReference("BK-00000000000000");
+    }
+    
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStart = System.nanoTime();
+        commitsAtStart = statistics.getSuccessfulTransactionCount();
+        bookingsAtStart = statistics.getEntityStatistics(Booking.class.getName()).getInsertCount();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void reportCommits() {
+        long commits = statistics.getSuccessfulTransactionCount() - commitsAtStart;
+        if (commits > 0) {
+            // Commits include the MEMORY inventory's write-back, one per event with changed seats
+            long bookings = statistics.getEntityStatistics(Booking.class.getName()).getInsertCount() - bookingsAtStart;
+            double seconds = (System.nanoTime() - iterationStart) / 1e9;
+            System.out.printf("%n%.0f commits/s, %.1f bookings per commit%n", commits / seconds, (double) bookings / commits);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public BookingResponse createBooking1Thread() {
+        return createBooking();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public BookingResponse createBooking8Threads() {
+        return createBooking();
+    }
+    
+    @Benchmark
+    @Threads(64)
+    public BookingResponse createBooking64Threads() {
+        return createBooking();
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BookingResponse mapToResponse() {
+        return bookingService.mapToResponse(booking);
+    }
+    
+    private BookingResponse createBooking() {
+        long eventId = eventIds[ThreadLocalRandom.current().nextInt(eventIds.length)];
+        return bookingService.createBooking(new BookingRequest(eventId, "Jane Doe", "jane@example.com", 1, null));
+    }
+}
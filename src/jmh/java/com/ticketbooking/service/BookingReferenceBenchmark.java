@@ -0,0 +1,38 @@
+package com.ticketbooking.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference generation against the UUID-based references it replaced
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingReferenceBenchmark {
+    
+    private final BookingReferenceGenerator generator = new BookingReferenceGenerator();
+    
+    @Benchmark
+    @Threads(1)
+    public String generator1Thread() {
+        return generator.next();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String generator8Threads() {
+        return generator.next();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String uuid8Threads() {
+        return "BK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
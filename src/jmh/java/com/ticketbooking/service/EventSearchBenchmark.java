@@ -0,0 +1,77 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventService search methods over catalogs of 1k to 1M events.
+ * The catalog is bulk-inserted once per trial; the 1M setup takes a few minutes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventSearchBenchmark {
+    
+    private static final int INSERT_CHUNK = 10_000;
+    
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        eventService = context.getBean(EventService.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        List<Event> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < catalogSize; i++) {
+            chunk.add(BenchmarkContext.event(i, 1000));
+            if (chunk.size() == INSERT_CHUNK || i == catalogSize - 1) {
+                eventRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        // Bulk inserts bypass EventService, index the catalog in one go
+        context.getBean(EventSearchIndex.class).load();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    /** Unique name, one match */
+    @Benchmark
+    public List<Event> searchByNameSelective() {
+        return eventService.searchEventsByName("Event " + ThreadLocalRandom.current().nextInt(catalogSize) + " Live");
+    }
+    
+    /** One venue, catalogSize / 1000 matches */
+    @Benchmark
+    public List<Event> searchByVenue() {
+        return eventService.searchEventsByVenue("Venue " + ThreadLocalRandom.current().nextInt(1000) + " Hall");
+    }
+    
+    @Benchmark
+    public List<Event> eventsByCategory() {
+        return eventService.getEventsByCategory(
+                BenchmarkContext.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkContext.CATEGORIES.length)]);
+    }
+    
+    @Benchmark
+    public List<Event> upcomingEvents() {
+        return eventService.getUpcomingEvents();
+    }
+}
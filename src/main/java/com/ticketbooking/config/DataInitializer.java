@@ -1,7 +1,9 @@
 package com.ticketbooking.config;
 
 import com.ticketbooking.entity.Event;
+import com.ticketbooking.entity.SeatSection;
 import com.ticketbooking.repository.EventRepository;
+import com.ticketbooking.repository.SeatSectionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -17,6 +19,7 @@ import java.util.List;
 public class DataInitializer implements CommandLineRunner {
     
     private final EventRepository eventRepository;
+    private final SeatSectionRepository seatSectionRepository;
     
     @Override
     public void run(String... args) {
@@ -98,9 +101,26 @@ public class DataInitializer implements CommandLineRunner {
         );
         
         eventRepository.saveAll(events);
+        
+        // Assigned seating for the theater and the stadium
+        Event hamlet = events.get(2);
+        Event qualifier = events.get(7);
+        seatSectionRepository.saveAll(List.of(
+                createSection(hamlet, "Orchestra", 20, 25, 1),
+                createSection(hamlet, "Mezzanine", 10, 20, 2),
+                createSection(hamlet, "Balcony", 5, 20, 3),
+                createSection(qualifier, "West Stand", 150, 100, 1),
+                createSection(qualifier, "East Stand", 150, 100, 2),
+                createSection(qualifier, "North Stand", 150, 100, 3),
+                createSection(qualifier, "South Stand", 150, 100, 4)
+        ));
         log.info("Sample events initialized successfully!");
     }
     
+    private SeatSection createSection(Event event, String name, int rows, int seatsPerRow, int rank) {
+        return new SeatSection(null, event, name, rows, seatsPerRow, rank);
+    }
+    
     private Event createEvent(String name, String venue, LocalDateTime eventDate, 
                              Double price, Integer seats, String category, String description) {
         Event event = new Event();
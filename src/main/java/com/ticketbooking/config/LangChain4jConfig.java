@@ -1,15 +1,18 @@
 package com.ticketbooking.config;
 
-import com.ticketbooking.service.TicketBookingAssistant;
+import com.ticketbooking.service.CancellableStreamingModel;
+import com.ticketbooking.service.ConversationMemoryStore;
+import com.ticketbooking.service.LlmGateway;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
-import dev.langchain4j.service.AiServices;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class LangChain4jConfig {
@@ -23,8 +26,52 @@ public class LangChain4jConfig {
     @Value("${langchain4j.open-ai.chat-model.temperature:0.7}")
     private Double temperature;
     
-    @Bean
-    public ChatLanguageModel chatLanguageModel() {
+    @Value("${ai.stub.enabled:false}")
+    private boolean stubEnabled;
+    
+    @Value("${ai.stub.latency-ms:0}")
+    private long stubLatencyMs;
+    
+    @Value("${ai.stub.fail-every:0}")
+    private int stubFailEvery;
+    
+    @Value("${ai.gateway.max-in-flight:16}")
+    private int gatewayMaxInFlight;
+    
+    @Value("${ai.gateway.max-queued:256}")
+    private int gatewayMaxQueued;
+    
+    @Value("${ai.gateway.requests-per-minute:500}")
+    private int gatewayRequestsPerMinute;
+    
+    @Value("${ai.gateway.burst:20}")
+    private int gatewayBurst;
+    
+    @Value("${ai.gateway.timeout-ms:60000}")
+    private long gatewayTimeoutMs;
+    
+    @Value("${ai.gateway.failure-threshold:5}")
+    private int gatewayFailureThreshold;
+    
+    @Value("${ai.gateway.open-ms:30000}")
+    private long gatewayOpenMs;
+    
+    /**
+     * The model the assistants and the streamed answers talk to: the OpenAI (or stub)
+     * model behind the LLM gateway
+     */
+    @Bean(destroyMethod = "shutdown")
+    public LlmGateway chatLanguageModel(TokenUsageMetrics tokenUsageMetrics) {
+        StubChatLanguageModel stub = stubEnabled ? new StubChatLanguageModel(stubLatencyMs, stubFailEvery) : null;
+        ChatLanguageModel model = stub != null ? stub : openAiChatModel(tokenUsageMetrics);
+        CancellableStreamingModel streamingModel = stub != null
+                ? stub
+                : new OpenAiCancellableStreamingModel(apiKey, modelName, temperature, Duration.ofSeconds(60), tokenUsageMetrics);
+        return new LlmGateway(model, streamingModel, gatewayMaxInFlight, gatewayMaxQueued, gatewayRequestsPerMinute,
+                gatewayBurst, gatewayTimeoutMs, gatewayFailureThreshold, gatewayOpenMs);
+    }
+    
+    private ChatLanguageModel openAiChatModel(TokenUsageMetrics tokenUsageMetrics) {
         return OpenAiChatModel.builder()
                 .apiKey(apiKey)
                 .modelName(modelName)
@@ -32,14 +79,19 @@ public class LangChain4jConfig {
                 .timeout(Duration.ofSeconds(60))
                 .logRequests(true)
                 .logResponses(true)
+                .listeners(List.of(tokenUsageMetrics))
                 .build();
     }
     
+    /**
+     * One message window per conversation id, backed by the size-capped store
+     */
     @Bean
-    public TicketBookingAssistant ticketBookingAssistant(ChatLanguageModel chatLanguageModel) {
-        return AiServices.builder(TicketBookingAssistant.class)
-                .chatLanguageModel(chatLanguageModel)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(10))
+    public ChatMemoryProvider chatMemoryProvider(ConversationMemoryStore conversationMemoryStore) {
+        return memoryId -> MessageWindowChatMemory.builder()
+                .id(memoryId)
+                .maxMessages(10)
+                .chatMemoryStore(conversationMemoryStore)
                 .build();
     }
 }
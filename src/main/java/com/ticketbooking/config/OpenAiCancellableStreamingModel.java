@@ -0,0 +1,80 @@
+package com.ticketbooking.config;
+
+import com.ticketbooking.service.CancellableStreamingModel;
+import dev.ai4j.openai4j.OpenAiClient;
+import dev.ai4j.openai4j.ResponseHandle;
+import dev.ai4j.openai4j.chat.ChatCompletionChoice;
+import dev.ai4j.openai4j.chat.ChatCompletionRequest;
+import dev.ai4j.openai4j.chat.StreamOptions;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.openai.InternalOpenAiHelper;
+import dev.langchain4j.model.openai.OpenAiStreamingResponseBuilder;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams chat completions from OpenAI with openai4j directly, the same client
+ * LangChain4j's OpenAiStreamingChatModel uses, but keeping the response handle so
+ * that an abandoned stream closes its connection and the generation stops.
+ */
+public class OpenAiCancellableStreamingModel implements CancellableStreamingModel {
+    
+    private final OpenAiClient client;
+    private final String modelName;
+    private final Double temperature;
+    private final TokenUsageMetrics tokenUsageMetrics;
+    
+    public OpenAiCancellableStreamingModel(String apiKey, String modelName, Double temperature, Duration timeout,
+                                           TokenUsageMetrics tokenUsageMetrics) {
+        this.client = OpenAiClient.builder()
+                .openAiApiKey(apiKey)
+                .callTimeout(timeout)
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .writeTimeout(timeout)
+                .logRequests()
+                .logStreamingResponses()
+                .build();
+        this.modelName = modelName;
+        this.temperature = temperature;
+        this.tokenUsageMetrics = tokenUsageMetrics;
+    }
+    
+    @Override
+    public Runnable generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
+                .stream(true)
+                .streamOptions(StreamOptions.builder().includeUsage(true).build())
+                .model(modelName)
+                .messages(InternalOpenAiHelper.toOpenAiMessages(messages))
+                .temperature(temperature)
+                .build();
+        OpenAiStreamingResponseBuilder responseBuilder = new OpenAiStreamingResponseBuilder(null);
+        ResponseHandle handle = client.chatCompletion(request)
+                .onPartialResponse(partial -> {
+                    responseBuilder.append(partial);
+                    List<ChatCompletionChoice> choices = partial.choices();
+                    if (choices != null && !choices.isEmpty() && choices.get(0).delta() != null) {
+                        String token = choices.get(0).delta().content();
+                        if (token != null && !token.isEmpty()) {
+                            handler.onNext(token);
+                        }
+                    }
+                })
+                .onComplete(() -> {
+                    Response<AiMessage> response = responseBuilder.build(null, false);
+                    tokenUsageMetrics.record(response.tokenUsage());
+                    handler.onComplete(response);
+                })
+                .onError(error -> {
+                    tokenUsageMetrics.recordError();
+                    handler.onError(error);
+                })
+                .execute();
+        return handle::cancel;
+    }
+}
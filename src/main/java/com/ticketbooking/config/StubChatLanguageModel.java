@@ -0,0 +1,123 @@
+package com.ticketbooking.config;
+
+import com.ticketbooking.service.CancellableStreamingModel;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the OpenAI model, for benchmarks and running without an API key.
+ * Answers are a pure function of the prompt: the extraction and search-analysis
+ * prompts get well-formed JSON, everything else a short canned reply. A fixed
+ * latency and periodic failures can be added to mimic a slow or flaky remote model.
+ * Streamed answers arrive word by word after the same latency, on a thread of their own.
+ */
+public class StubChatLanguageModel implements ChatLanguageModel, CancellableStreamingModel {
+    
+    private static final long TOKEN_INTERVAL_MS = 10;
+    
+    private final ExecutorService streams = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "stub-model-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final long latencyMs;
+    private final int failEvery;
+    private final AtomicLong calls = new AtomicLong();
+    
+    /**
+     * @param failEvery every n-th call throws, 0 for never
+     */
+    public StubChatLanguageModel(long latencyMs, int failEvery) {
+        this.latencyMs = latencyMs;
+        this.failEvery = failEvery;
+    }
+    
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String system = "";
+        String user = "";
+        int promptChars = 0;
+        for (ChatMessage message : messages) {
+            if (message instanceof SystemMessage systemMessage) {
+                system = systemMessage.text();
+                promptChars += system.length();
+            } else if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+                user = userMessage.singleText();
+                promptChars += user.length();
+            }
+        }
+        if (latencyMs > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Stub model interrupted", e);
+            }
+        }
+        if (failEvery > 0 && calls.incrementAndGet() % failEvery == 0) {
+            throw new RuntimeException("Stub model failure (every " + failEvery + " calls)");
+        }
+        String reply = reply(system, user);
+        // Roughly four characters per token, close enough for usage accounting
+        TokenUsage usage = new TokenUsage(promptChars / 4 + 1, reply.length() / 4 + 1);
+        return Response.from(AiMessage.from(reply), usage, FinishReason.STOP);
+    }
+    
+    /**
+     * Same answer as generate(), one word per token; cancelling interrupts the stream
+     */
+    @Override
+    public Runnable generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        Future<?> stream = streams.submit(() -> {
+            Response<AiMessage> response;
+            try {
+                response = generate(messages);
+            } catch (RuntimeException e) {
+                handler.onError(e);
+                return;
+            }
+            String[] words = response.content().text().split("(?<= )");
+            try {
+                for (String word : words) {
+                    handler.onNext(word);
+                    TimeUnit.MILLISECONDS.sleep(TOKEN_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            handler.onComplete(response);
+        });
+        return () -> stream.cancel(true);
+    }
+    
+    private static String reply(String system, String user) {
+        if (system.contains("searchType")) {
+            return "{\"searchType\": \"GENERAL\", \"searchValue\": \"" + escape(user) + "\"}";
+        }
+        if (system.contains("customerEmail")) {
+            return "{\"eventName\": null, \"numberOfTickets\": " + (Math.floorMod(user.hashCode(), 4) + 1)
+                    + ", \"customerName\": \"Stub Customer\", \"customerEmail\": \"stub.customer@example.com\"}";
+        }
+        String topic = user.length() > 60 ? user.substring(0, 60) : user;
+        return "Here is what I found for \"" + topic.strip() + "\" (reply " + Integer.toHexString(user.hashCode()) + ").";
+    }
+    
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+    }
+}
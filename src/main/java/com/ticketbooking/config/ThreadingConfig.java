@@ -0,0 +1,90 @@
+package com.ticketbooking.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threading for the blocking LLM and JPA work behind /api/ai.
+ * With spring.threads.virtual.enabled=true on Java 21+, Tomcat (via Spring Boot)
+ * and the AI executor both run on virtual threads. Otherwise AI calls get their
+ * own bounded platform pool so they cannot starve the Tomcat request threads.
+ */
+@Configuration
+@Slf4j
+public class ThreadingConfig {
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+    
+    @Value("${ai.executor.pool-size:50}")
+    private int poolSize;
+    
+    @Value("${ai.executor.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${ai.fanout.parallelism:8}")
+    private int searchParallelism;
+    
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService aiExecutor() {
+        if (virtualThreadsAvailable()) {
+            log.info("AI executor running on virtual threads");
+            return newVirtualThreadPerTaskExecutor();
+        }
+        log.info("AI executor running on a bounded platform pool of {} threads", poolSize);
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "ai-exec-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    /**
+     * Short parallel catalog lookups of the fan-out search. Kept apart from the AI
+     * executor, whose tasks wait on these and could otherwise take every thread.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService searchExecutor() {
+        if (virtualThreadsAvailable()) {
+            return newVirtualThreadPerTaskExecutor();
+        }
+        log.info("Search executor running on a fork-join pool of {} threads", searchParallelism);
+        return new ForkJoinPool(searchParallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+    
+    /**
+     * Virtual threads are requested in configuration and the runtime supports them
+     */
+    boolean virtualThreadsAvailable() {
+        if (!virtualThreadsEnabled) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads, using platform threads",
+                    Runtime.version().feature());
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Looked up reflectively so the application still compiles for Java 17
+     */
+    private ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ticketbooking.config;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prompt and completion token counts reported by the chat models, in total and per call
+ */
+@Component
+public class TokenUsageMetrics implements ChatModelListener {
+    
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final DistributionSummary promptTokensPerCall;
+    private final DistributionSummary completionTokensPerCall;
+    private final Counter errors;
+    
+    public TokenUsageMetrics(MeterRegistry registry) {
+        promptTokens = Counter.builder("ai.tokens").tag("type", "prompt").register(registry);
+        completionTokens = Counter.builder("ai.tokens").tag("type", "completion").register(registry);
+        promptTokensPerCall = DistributionSummary.builder("ai.tokens.per.call").tag("type", "prompt")
+                .publishPercentiles(0.5, 0.95, 0.99).register(registry);
+        completionTokensPerCall = DistributionSummary.builder("ai.tokens.per.call").tag("type", "completion")
+                .publishPercentiles(0.5, 0.95, 0.99).register(registry);
+        errors = Counter.builder("ai.model.errors").register(registry);
+    }
+    
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        record(context.response().tokenUsage());
+    }
+    
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        recordError();
+    }
+    
+    /**
+     * For models called without LangChain4j's listener support, like the cancellable stream
+     */
+    public void record(TokenUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        if (usage.inputTokenCount() != null) {
+            promptTokens.increment(usage.inputTokenCount());
+            promptTokensPerCall.record(usage.inputTokenCount());
+        }
+        if (usage.outputTokenCount() != null) {
+            completionTokens.increment(usage.outputTokenCount());
+            completionTokensPerCall.record(usage.outputTokenCount());
+        }
+    }
+    
+    public void recordError() {
+        errors.increment();
+    }
+}
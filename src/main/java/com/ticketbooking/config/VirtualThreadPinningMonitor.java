@@ -0,0 +1,83 @@
+package com.ticketbooking.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while
+ * blocking inside a synchronized block in the JDBC driver or HTTP client.
+ * Listens to the JFR jdk.VirtualThreadPinned event, which exists from Java 21,
+ * and records each pinning in the threads.virtual.pinned timer tagged with the top frame.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 5;
+    
+    private final ThreadingConfig threadingConfig;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${threads.pinning.threshold-ms:20}")
+    private long thresholdMs;
+    
+    private RecordingStream stream;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!threadingConfig.virtualThreadsAvailable()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {} ms", thresholdMs);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        String site = "unknown";
+        StringBuilder trace = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(REPORTED_FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                String location = frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber();
+                if (i == 0) {
+                    site = location;
+                }
+                trace.append("\n    at ").append(location);
+            }
+        }
+        Timer.builder("threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        log.warn("Virtual thread pinned for {} ms on thread {}{}", event.getDuration().toMillis(),
+                event.getThread() != null ? event.getThread().getJavaName() : "?", trace);
+    }
+}
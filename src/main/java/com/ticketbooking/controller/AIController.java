@@ -2,28 +2,68 @@ package com.ticketbooking.controller;
 
 import com.ticketbooking.dto.BookingResponse;
 import com.ticketbooking.service.AIBookingService;
+import com.ticketbooking.service.AIResponseCache;
+import com.ticketbooking.service.ConversationMemoryStore;
+import com.ticketbooking.service.FanOutEventSearch;
+import com.ticketbooking.service.LlmGateway;
+import com.ticketbooking.service.PromptContextBuilder;
+import com.ticketbooking.service.SearchIntentRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/ai")
 @RequiredArgsConstructor
 public class AIController {
     
+    private static final String CONVERSATION_HEADER = "X-Conversation-Id";
+    
     private final AIBookingService aiBookingService;
+    private final AIResponseCache responseCache;
+    private final SearchIntentRouter intentRouter;
+    private final PromptContextBuilder promptContextBuilder;
+    private final SseTokenRelay sseTokenRelay;
+    private final ConversationMemoryStore conversationMemoryStore;
+    private final LlmGateway llmGateway;
+    private final FanOutEventSearch fanOutSearch;
     
     /**
      * Chat with AI assistant using natural language
      * Example: "Show me all concerts in New York"
+     * Pass the returned X-Conversation-Id header back to continue the same conversation
      */
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, String>> chat(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> chat(
+            @RequestHeader(value = CONVERSATION_HEADER, required = false) String conversationId,
+            @RequestBody Map<String, String> request) {
+        String id = conversationId(conversationId);
         String query = request.get("message");
-        String response = aiBookingService.processNaturalLanguageQuery(query);
-        return ResponseEntity.ok(Map.of("response", response));
+        return aiBookingService.processNaturalLanguageQueryAsync(id, query)
+                .thenApply(response -> ResponseEntity.ok()
+                        .header(CONVERSATION_HEADER, id)
+                        .body(Map.of("response", response)));
+    }
+    
+    /**
+     * Streaming variant of /chat, tokens are pushed as Server-Sent Events
+     * ("token" events, then "done" or "error")
+     */
+    @PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(
+            @RequestHeader(value = CONVERSATION_HEADER, required = false) String conversationId,
+            @RequestBody Map<String, String> request) {
+        String id = conversationId(conversationId);
+        String query = request.get("message");
+        return ResponseEntity.ok()
+                .header(CONVERSATION_HEADER, id)
+                .body(sseTokenRelay.relay(handler -> aiBookingService.streamNaturalLanguageQuery(id, query, handler)));
     }
     
     /**
@@ -31,12 +71,12 @@ public class AIController {
      * Example: "Book 2 tickets for John Doe, email john@example.com"
      */
     @PostMapping("/book/{eventId}")
-    public ResponseEntity<BookingResponse> bookWithNaturalLanguage(
+    public CompletableFuture<ResponseEntity<BookingResponse>> bookWithNaturalLanguage(
             @PathVariable Long eventId,
             @RequestBody Map<String, String> request) {
         String message = request.get("message");
-        BookingResponse response = aiBookingService.processNaturalLanguageBooking(message, eventId);
-        return ResponseEntity.ok(response);
+        return aiBookingService.processNaturalLanguageBookingAsync(message, eventId)
+                .thenApply(ResponseEntity::ok);
     }
     
     /**
@@ -44,9 +84,80 @@ public class AIController {
      * Example: "I like rock music and outdoor venues"
      */
     @PostMapping("/recommendations")
-    public ResponseEntity<Map<String, String>> getRecommendations(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getRecommendations(
+            @RequestHeader(value = CONVERSATION_HEADER, required = false) String conversationId,
+            @RequestBody Map<String, String> request) {
+        String id = conversationId(conversationId);
         String preferences = request.get("preferences");
-        String recommendations = aiBookingService.getEventRecommendations(preferences);
-        return ResponseEntity.ok(Map.of("recommendations", recommendations));
+        return aiBookingService.getEventRecommendationsAsync(id, preferences)
+                .thenApply(recommendations -> ResponseEntity.ok()
+                        .header(CONVERSATION_HEADER, id)
+                        .body(Map.of("recommendations", recommendations)));
+    }
+    
+    /**
+     * Streaming variant of /recommendations
+     */
+    @PostMapping(path = "/recommendations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getRecommendationsStream(
+            @RequestHeader(value = CONVERSATION_HEADER, required = false) String conversationId,
+            @RequestBody Map<String, String> request) {
+        String id = conversationId(conversationId);
+        String preferences = request.get("preferences");
+        return ResponseEntity.ok()
+                .header(CONVERSATION_HEADER, id)
+                .body(sseTokenRelay.relay(handler -> aiBookingService.streamEventRecommendations(id, preferences, handler)));
+    }
+    
+    /**
+     * Hit, miss and eviction counts for the chat response cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+    
+    /**
+     * How many chat queries were routed locally versus analyzed by the LLM
+     */
+    @GetMapping("/intent/stats")
+    public ResponseEntity<Map<String, Object>> getIntentStats() {
+        return ResponseEntity.ok(intentRouter.getStats());
+    }
+    
+    /**
+     * Prompt tokens spent on event context and saved versus the verbose format
+     */
+    @GetMapping("/prompt/stats")
+    public ResponseEntity<Map<String, Long>> getPromptStats() {
+        return ResponseEntity.ok(promptContextBuilder.getStats());
+    }
+    
+    /**
+     * Live conversations and bytes held by the chat memory store
+     */
+    @GetMapping("/memory/stats")
+    public ResponseEntity<Map<String, Long>> getMemoryStats() {
+        return ResponseEntity.ok(conversationMemoryStore.getStats());
+    }
+    
+    /**
+     * Queue, in-flight, coalescing and circuit breaker state of the LLM gateway
+     */
+    @GetMapping("/gateway/stats")
+    public ResponseEntity<Map<String, Object>> getGatewayStats() {
+        return ResponseEntity.ok(llmGateway.getStats());
+    }
+    
+    /**
+     * Parallel fan-out searches run for queries without a clear intent
+     */
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getFanOutSearchStats() {
+        return ResponseEntity.ok(fanOutSearch.getStats());
+    }
+    
+    private static String conversationId(String header) {
+        return header == null || header.isBlank() ? UUID.randomUUID().toString() : header;
     }
 }
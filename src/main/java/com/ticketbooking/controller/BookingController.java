@@ -1,15 +1,30 @@
 package com.ticketbooking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ticketbooking.dto.BookingRequest;
 import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.dto.BulkBookingRequest;
+import com.ticketbooking.dto.CursorPage;
+import com.ticketbooking.dto.QueueStatus;
+import com.ticketbooking.service.BookingExportService;
 import com.ticketbooking.service.BookingService;
+import com.ticketbooking.service.IdempotencyStore;
+import com.ticketbooking.service.WaitingRoom;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -17,19 +32,91 @@ public class BookingController {
 
 
 
+    private static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final WaitingRoom waitingRoom;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExportService bookingExportService,
+                             WaitingRoom waitingRoom, IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.bookingExportService = bookingExportService;
+        this.waitingRoom = waitingRoom;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
     }
 
 
+    /**
+     * Requests over the event's admission rate get 429 with a queue token to poll
+     * and resend in the X-Queue-Token header once admitted. Retries carrying the
+     * Idempotency-Key of a completed booking get its response back without queueing.
+     */
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody BookingRequest request) {
-        BookingResponse response = bookingService.createBooking(request);
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request,
+                                           @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Optional<BookingResponse> replay = idempotencyStore.findCompleted(
+                IdempotencyStore.Operation.CREATE_BOOKING, idempotencyKey, request);
+        if (replay.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(replay.get());
+        }
+        QueueStatus queue = waitingRoom.enter(request.getEventId(), queueToken);
+        if (!queue.isAdmitted()) {
+            return queued(queue);
+        }
+        BookingResponse response = idempotencyStore.execute(IdempotencyStore.Operation.CREATE_BOOKING,
+                idempotencyKey, request, () -> bookingService.createBooking(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    /**
+     * Book many items across events in one call. One NDJSON line with the item's
+     * index and status is streamed back per item as each transaction commits.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<StreamingResponseBody> createBookingsBulk(@Valid @RequestBody BulkBookingRequest request) {
+        StreamingResponseBody body = out -> bookingService.createBookingsBulk(
+                request.getItems(), request.getMode(), results -> writeLines(out, results));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    /**
+     * Hold seats as a PENDING booking; confirm it before the hold expires
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<?> createHold(@Valid @RequestBody BookingRequest request,
+                                        @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken) {
+        QueueStatus queue = waitingRoom.enter(request.getEventId(), queueToken);
+        if (!queue.isAdmitted()) {
+            return queued(queue);
+        }
+        BookingResponse response = bookingService.createHold(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @GetMapping("/queue/{token}")
+    public ResponseEntity<QueueStatus> getQueueStatus(@PathVariable String token) {
+        return ResponseEntity.ok(waitingRoom.status(token));
+    }
+    
+    @GetMapping("/queue/stats")
+    public ResponseEntity<Map<String, Map<String, Long>>> getQueueStats() {
+        return ResponseEntity.ok(waitingRoom.getStats());
+    }
+    
+    @PostMapping("/reference/{reference}/confirm")
+    public ResponseEntity<BookingResponse> confirmHold(@PathVariable String reference) {
+        BookingResponse response = bookingService.confirmHold(reference);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/reference/{reference}")
     public ResponseEntity<BookingResponse> getBookingByReference(@PathVariable String reference) {
         BookingResponse response = bookingService.getBookingByReference(reference);
@@ -42,9 +129,55 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
     
+    @GetMapping("/email/{email}/page")
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsByEmailPage(
+            @PathVariable String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(bookingService.getBookingsByEmailPage(email, cursor, size));
+    }
+    
+    /**
+     * Stream every booking of an event as NDJSON (default) or CSV
+     */
+    @GetMapping("/event/{eventId}/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "NDJSON") BookingExportService.Format format) {
+        boolean csv = format == BookingExportService.Format.CSV;
+        StreamingResponseBody body = out -> bookingExportService.export(eventId, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings-" + eventId + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+    
     @DeleteMapping("/reference/{reference}")
-    public ResponseEntity<BookingResponse> cancelBooking(@PathVariable String reference) {
-        BookingResponse response = bookingService.cancelBooking(reference);
+    public ResponseEntity<BookingResponse> cancelBooking(
+            @PathVariable String reference,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        BookingResponse response = idempotencyStore.execute(IdempotencyStore.Operation.CANCEL_BOOKING,
+                idempotencyKey, reference, () -> bookingService.cancelBooking(reference));
         return ResponseEntity.ok(response);
     }
+    
+    private void writeLines(OutputStream out, List<?> lines) {
+        try {
+            for (Object line : lines) {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing bulk booking results failed", e);
+        }
+    }
+    
+    private static ResponseEntity<QueueStatus> queued(QueueStatus queue) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, queue.getEstimatedWaitSeconds())))
+                .header(QUEUE_TOKEN_HEADER, queue.getToken())
+                .body(queue);
+    }
 }
@@ -1,20 +1,33 @@
 package com.ticketbooking.controller;
 
+import com.ticketbooking.dto.CursorPage;
+import com.ticketbooking.dto.EventSummary;
+import com.ticketbooking.dto.SeatSectionRequest;
+import com.ticketbooking.dto.SeatSectionResponse;
 import com.ticketbooking.entity.Event;
+import com.ticketbooking.service.EventCache;
 import com.ticketbooking.service.EventService;
+import com.ticketbooking.service.SeatMap;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/events")
 @RequiredArgsConstructor
+@Validated
 public class EventController {
     
     private final EventService eventService;
+    private final EventCache eventCache;
+    private final SeatMap seatMap;
     
     @PostMapping
     public ResponseEntity<Event> createEvent(@RequestBody Event event) {
@@ -28,6 +41,16 @@ public class EventController {
         return ResponseEntity.ok(events);
     }
     
+    /**
+     * Keyset-paginated catalog; pass nextCursor from the previous page as cursor
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<EventSummary>> getEventsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(eventService.getEventsPage(cursor, size));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Event> getEventById(@PathVariable Long id) {
         Event event = eventService.getEventById(id);
@@ -64,15 +87,50 @@ public class EventController {
         return ResponseEntity.ok(events);
     }
     
+    @GetMapping("/available/page")
+    public ResponseEntity<CursorPage<EventSummary>> getAvailableEventsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(eventService.getAvailableEventsPage(cursor, size));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<Event> updateEvent(@PathVariable Long id, @RequestBody Event event) {
         Event updated = eventService.updateEvent(id, event);
         return ResponseEntity.ok(updated);
     }
     
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return ResponseEntity.ok(eventCache.getStats());
+    }
+    
+    /**
+     * Add assigned seating to an event that has not sold any tickets yet
+     */
+    @PostMapping("/{id}/seats")
+    public ResponseEntity<List<SeatSectionResponse>> defineSeatMap(
+            @PathVariable Long id,
+            @RequestBody List<@Valid SeatSectionRequest> sections) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(seatMap.define(id, sections));
+    }
+    
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<List<SeatSectionResponse>> getSeatMap(@PathVariable Long id) {
+        return ResponseEntity.ok(seatMap.describe(id));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEvent(@PathVariable Long id) {
         eventService.deleteEvent(id);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Invalid elements of a list body, such as a section without rows
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConstraintViolation(ConstraintViolationException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
@@ -0,0 +1,116 @@
+package com.ticketbooking.controller;
+
+import com.ticketbooking.service.LlmGateway;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Pushes tokens of a streamed model answer to the client as Server-Sent Events.
+ *
+ * Each token is written synchronously from the model's callback thread, so a slow
+ * client stalls reading from the model connection instead of buffering tokens in
+ * memory. Once the client disconnects or times out, the stream is cancelled, which
+ * stops the generation at the provider.
+ */
+@Component
+@Slf4j
+public class SseTokenRelay {
+    
+    @Value("${ai.stream.timeout-ms:120000}")
+    private long timeoutMs;
+    
+    /**
+     * @param stream starts the answer with the given handler and returns its handle
+     */
+    public SseEmitter relay(Function<StreamingResponseHandler<AiMessage>, CompletableFuture<LlmGateway.StreamHandle>> stream) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Relay relay = new Relay(emitter);
+        emitter.onCompletion(relay::close);
+        emitter.onError(error -> relay.close());
+        emitter.onTimeout(() -> {
+            relay.close();
+            emitter.complete();
+        });
+        
+        stream.apply(relay).whenComplete((handle, error) -> {
+            if (error != null) {
+                relay.onError(error);
+            } else {
+                relay.started(handle);
+            }
+        });
+        return emitter;
+    }
+    
+    private static final class Relay implements StreamingResponseHandler<AiMessage> {
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicReference<LlmGateway.StreamHandle> handle = new AtomicReference<>();
+        
+        Relay(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        @Override
+        public void onNext(String token) {
+            send("token", token);
+        }
+        
+        @Override
+        public void onComplete(Response<AiMessage> response) {
+            if (send("done", "")) {
+                emitter.complete();
+            }
+        }
+        
+        @Override
+        public void onError(Throwable error) {
+            log.error("Error streaming AI response", error);
+            if (send("error", "I apologize, but I encountered an error processing your request.")) {
+                emitter.complete();
+            }
+        }
+        
+        void started(LlmGateway.StreamHandle started) {
+            handle.set(started);
+            // The client went away while the prompt was being prepared
+            if (closed.get()) {
+                started.cancel();
+            }
+        }
+        
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                LlmGateway.StreamHandle started = handle.get();
+                if (started != null) {
+                    started.cancel();
+                }
+            }
+        }
+        
+        private boolean send(String name, String data) {
+            if (closed.get()) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Client disconnected, cancelling the stream");
+                close();
+                return false;
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,4 +26,7 @@ public class BookingRequest {
     @Min(value = 1, message = "At least 1 ticket must be booked")
     @Max(value = 10, message = "Maximum 10 tickets can be booked at once")
     private Integer numberOfTickets;
+    
+    // Specific seats for events with assigned seating; best available seats are picked when omitted
+    private List<String> seatIds;
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -24,4 +25,6 @@ public class BookingResponse {
     private LocalDateTime bookingDate;
     private Booking.BookingStatus status;
     private String message;
+    private List<String> seatIds;
+    private LocalDateTime holdExpiresAt;
 }
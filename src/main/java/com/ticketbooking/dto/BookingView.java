@@ -0,0 +1,35 @@
+package com.ticketbooking.dto;
+
+import com.ticketbooking.entity.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a booking joined with its event, holding only the columns of a BookingResponse
+ */
+public interface BookingView {
+    
+    Long getBookingId();
+    
+    String getBookingReference();
+    
+    String getEventName();
+    
+    String getVenue();
+    
+    LocalDateTime getEventDate();
+    
+    String getCustomerName();
+    
+    String getCustomerEmail();
+    
+    Integer getNumberOfTickets();
+    
+    Double getTotalAmount();
+    
+    LocalDateTime getBookingDate();
+    
+    Booking.BookingStatus getStatus();
+    
+    LocalDateTime getHoldExpiresAt();
+}
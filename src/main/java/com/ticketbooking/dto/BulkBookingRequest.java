@@ -0,0 +1,29 @@
+package com.ticketbooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingRequest {
+    
+    public enum Mode {
+        ALL_OR_NOTHING, // one transaction, any failed item rolls back every item
+        BEST_EFFORT     // items succeed or fail on their own, committed in chunks
+    }
+    
+    @NotNull(message = "Mode is required")
+    private Mode mode = Mode.BEST_EFFORT;
+    
+    @NotEmpty(message = "At least one booking item is required")
+    @Size(max = 5000, message = "Maximum 5000 items per bulk booking")
+    private List<@Valid BookingRequest> items;
+}
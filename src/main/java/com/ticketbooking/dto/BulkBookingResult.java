@@ -0,0 +1,23 @@
+package com.ticketbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one item of a bulk booking, streamed as one NDJSON line
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingResult {
+    
+    public enum Status {
+        BOOKED, FAILED, ROLLED_BACK
+    }
+    
+    private int index; // position of the item in the request
+    private Status status;
+    private BookingResponse booking;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package com.ticketbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event columns shown in list views, selected without the description
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSummary {
+    
+    private Long id;
+    private String name;
+    private String venue;
+    private LocalDateTime eventDate;
+    private Double ticketPrice;
+    private Integer availableSeats;
+    private Integer totalSeats;
+    private String category;
+}
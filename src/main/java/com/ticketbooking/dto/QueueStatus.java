@@ -0,0 +1,17 @@
+package com.ticketbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatus {
+    
+    private Long eventId;
+    private String token;
+    private boolean admitted;
+    private Long position; // 0 once admitted
+    private Long estimatedWaitSeconds;
+}
@@ -0,0 +1,28 @@
+package com.ticketbooking.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatSectionRequest {
+    
+    @NotBlank(message = "Section name is required")
+    @Pattern(regexp = "[A-Za-z0-9 ]+", message = "Section name may only contain letters, digits and spaces")
+    private String name;
+    
+    @NotNull(message = "Number of rows is required")
+    @Min(value = 1, message = "A section needs at least 1 row")
+    private Integer rows;
+    
+    @NotNull(message = "Seats per row is required")
+    @Min(value = 1, message = "A row needs at least 1 seat")
+    @Max(value = 512, message = "A row can have at most 512 seats")
+    private Integer seatsPerRow;
+    
+    @NotNull(message = "Rank is required")
+    private Integer rank;
+}
@@ -0,0 +1,20 @@
+package com.ticketbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatSectionResponse {
+    
+    private String name;
+    private Integer rank;
+    private Integer rows;
+    private Integer seatsPerRow;
+    private Integer availableSeats;
+    private List<String> rowMap; // one string per row, '.' = free, 'X' = taken
+}
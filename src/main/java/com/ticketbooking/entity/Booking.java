@@ -3,23 +3,35 @@ package com.ticketbooking.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_customer_email", columnList = "customerEmail"),
+        @Index(name = "idx_bookings_event_id", columnList = "event_id"),
+        @Index(name = "idx_bookings_status", columnList = "status"),
+        @Index(name = "uk_bookings_reference", columnList = "bookingReference", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Event event;
     
     @Column(nullable = false)
@@ -43,7 +55,21 @@ public class Booking {
     
     private String bookingReference;
     
+    // Set while the booking is a PENDING hold
+    private LocalDateTime holdExpiresAt;
+    
+    // Assigned seats, empty for events without a seat map
+    @ElementCollection
+    @CollectionTable(name = "booking_seats", joinColumns = @JoinColumn(name = "booking_id"))
+    @Column(name = "seat_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<String> seatIds = new ArrayList<>();
+    
+    @Version
+    private Long version;
+    
     public enum BookingStatus {
-        CONFIRMED, PENDING, CANCELLED
+        CONFIRMED, PENDING, CANCELLED, EXPIRED
     }
 }
@@ -8,14 +8,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_category_date", columnList = "category, eventDate"),
+        @Index(name = "idx_events_event_date", columnList = "eventDate")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Event {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -41,4 +45,7 @@ public class Event {
     
     @Column(nullable = false)
     private String category; // CONCERT, SPORTS, THEATER, CONFERENCE, etc.
+    
+    @Version
+    private Long version;
 }
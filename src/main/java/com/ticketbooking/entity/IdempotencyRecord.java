@@ -0,0 +1,36 @@
+package com.ticketbooking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a completed booking write, stored under the client's Idempotency-Key
+ * so that retries are answered without running the write again
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_created_at", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(length = 300)
+    private String idempotencyKey; // operation + ":" + client key
+    
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    
+    @Lob
+    @Column(nullable = false)
+    private String response;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.ticketbooking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A block of assigned seating for an event, laid out as rows of equal length.
+ * Seats are identified as "{section}-{row}-{seat}" with 1-based row and seat numbers.
+ */
+@Entity
+@Table(name = "seat_sections", indexes = {
+        @Index(name = "idx_seat_sections_event_id", columnList = "event_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatSection {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_section_seq")
+    @SequenceGenerator(name = "seat_section_seq", sequenceName = "seat_section_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Event event;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(nullable = false)
+    private Integer rowCount;
+    
+    @Column(nullable = false)
+    private Integer seatsPerRow;
+    
+    @Column(nullable = false)
+    private Integer rank; // 1 = best, used first by best-available allocation
+}
@@ -1,20 +1,97 @@
 package com.ticketbooking.repository;
 
+import com.ticketbooking.dto.BookingView;
 import com.ticketbooking.entity.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
+    /**
+     * Select list for BookingView, one row per booking joined with its event
+     */
+    String VIEW_SELECT = "SELECT b.id AS bookingId, b.bookingReference AS bookingReference, e.name AS eventName, " +
+            "e.venue AS venue, e.eventDate AS eventDate, b.customerName AS customerName, " +
+            "b.customerEmail AS customerEmail, b.numberOfTickets AS numberOfTickets, " +
+            "b.totalAmount AS totalAmount, b.bookingDate AS bookingDate, b.status AS status, " +
+            "b.holdExpiresAt AS holdExpiresAt " +
+            "FROM Booking b JOIN b.event e ";
+    
+    @EntityGraph(attributePaths = "event")
     List<Booking> findByCustomerEmail(String email);
     
+    @Query(VIEW_SELECT + "WHERE b.customerEmail = :email ORDER BY b.id")
+    List<BookingView> findViewsByCustomerEmail(@Param("email") String email);
+    
+    /**
+     * Keyset page of a customer's bookings with ids after the given one, in id order
+     */
+    @Query(VIEW_SELECT + "WHERE b.customerEmail = :email AND b.id > :afterId ORDER BY b.id")
+    List<BookingView> findViewsByCustomerEmailAfter(@Param("email") String email, @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+    
+    @Query(VIEW_SELECT + "WHERE b.bookingReference = :reference")
+    Optional<BookingView> findViewByBookingReference(@Param("reference") String reference);
+    
+    /**
+     * Loads the event in the same query for callers that update the booking and map it to a response
+     */
+    @EntityGraph(attributePaths = "event")
     Optional<Booking> findByBookingReference(String bookingReference);
     
+    @EntityGraph(attributePaths = "event")
     List<Booking> findByEventId(Long eventId);
     
+    @EntityGraph(attributePaths = "event")
+    List<Booking> findByBookingReferenceIn(Collection<String> bookingReferences);
+    
+    /**
+     * Reference and expiry of every hold in the given status, used to rebuild the expiry wheel
+     */
+    @Query("SELECT b.bookingReference, b.holdExpiresAt FROM Booking b WHERE b.status = :status")
+    List<Object[]> findHoldExpiries(@Param("status") Booking.BookingStatus status);
+    
+    /**
+     * Forward-only cursor over an event's bookings for exports, must be consumed inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b WHERE b.event.id = :eventId ORDER BY b.id")
+    Stream<Booking> streamByEventId(@Param("eventId") Long eventId);
+    
+    /**
+     * Event id and seat id of every assigned seat held by a booking not in the given statuses
+     */
+    @Query("SELECT b.event.id, s FROM Booking b JOIN b.seatIds s WHERE b.status NOT IN :excluded")
+    List<Object[]> findBookedSeatIds(@Param("excluded") Collection<Booking.BookingStatus> excluded);
+    
+    @Query("SELECT s FROM Booking b JOIN b.seatIds s WHERE b.bookingReference = :reference")
+    List<String> findSeatIdsByBookingReference(@Param("reference") String reference);
+    
+    /**
+     * Booking id and seat id of every assigned seat of the given bookings
+     */
+    @Query("SELECT b.id, s FROM Booking b JOIN b.seatIds s WHERE b.id IN :bookingIds")
+    List<Object[]> findSeatIdsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+    
     List<Booking> findByStatus(Booking.BookingStatus status);
+    
+    @Query("SELECT b.bookingReference FROM Booking b WHERE b.bookingReference IN :references")
+    Set<String> findExistingReferences(@Param("references") Collection<String> references);
 }
@@ -1,11 +1,20 @@
 package com.ticketbooking.repository;
 
+import com.ticketbooking.dto.EventSummary;
 import com.ticketbooking.entity.Event;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
@@ -19,4 +28,42 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByNameContainingIgnoreCase(String name);
     
     List<Event> findByAvailableSeatsGreaterThan(Integer seats);
+    
+    /**
+     * Keyset page of event summaries with ids after the given one, in id order
+     */
+    @Query("SELECT new com.ticketbooking.dto.EventSummary(e.id, e.name, e.venue, e.eventDate, e.ticketPrice, " +
+            "e.availableSeats, e.totalSeats, e.category) FROM Event e WHERE e.id > :afterId ORDER BY e.id")
+    List<EventSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.ticketbooking.dto.EventSummary(e.id, e.name, e.venue, e.eventDate, e.ticketPrice, " +
+            "e.availableSeats, e.totalSeats, e.category) FROM Event e " +
+            "WHERE e.id > :afterId AND e.availableSeats > 0 ORDER BY e.id")
+    List<EventSummary> findAvailableSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.availableSeats = e.availableSeats + :delta, e.version = e.version + 1 WHERE e.id = :id")
+    int adjustAvailableSeats(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * Take seats only if enough are left; returns 0 when the event is sold out or missing
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.availableSeats = e.availableSeats - :seats, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.availableSeats >= :seats")
+    int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+    
+    @Query("SELECT e.availableSeats FROM Event e WHERE e.id = :id")
+    Integer findAvailableSeats(@Param("id") Long id);
+    
+    /**
+     * Id, name and venue of every event, used to build the in-memory search index
+     */
+    @Query("SELECT e.id, e.name, e.venue FROM Event e")
+    List<Object[]> findAllNamesAndVenues();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,26 @@
+package com.ticketbooking.repository;
+
+import com.ticketbooking.entity.SeatSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SeatSectionRepository extends JpaRepository<SeatSection, Long> {
+    
+    @Query("SELECT s FROM SeatSection s WHERE s.event.id = :eventId ORDER BY s.rank, s.id")
+    List<SeatSection> findByEventId(@Param("eventId") Long eventId);
+    
+    @Query("SELECT s.event.id, s FROM SeatSection s ORDER BY s.event.id, s.rank, s.id")
+    List<Object[]> findAllWithEventId();
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SeatSection s WHERE s.event.id = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -1,146 +1,320 @@
 package com.ticketbooking.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ticketbooking.dto.BookingRequest;
 import com.ticketbooking.dto.BookingResponse;
 import com.ticketbooking.entity.Event;
-import lombok.RequiredArgsConstructor;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.model.StreamingResponseHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AIBookingService {
     
+    private static final int DEGRADED_MAX_EVENTS = 10;
+    
     private final TicketBookingAssistant assistant;
+    private final TicketBookingExtractor extractor;
     private final EventService eventService;
     private final BookingService bookingService;
+    private final ExecutorService aiExecutor;
+    private final AIResponseCache responseCache;
+    private final SearchIntentRouter intentRouter;
+    private final PromptContextBuilder promptContextBuilder;
+    private final FanOutEventSearch fanOutSearch;
+    private final ConversationMemoryStore conversationMemoryStore;
+    private final ChatMemoryProvider chatMemoryProvider;
+    private final MeterRegistry meterRegistry;
+    private final Timer chatTimer;
+    private final Timer extractBookingInfoTimer;
+    private final Timer analyzeSearchQueryTimer;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    public AIBookingService(TicketBookingAssistant assistant, TicketBookingExtractor extractor,
+                            EventService eventService, BookingService bookingService, ExecutorService aiExecutor,
+                            AIResponseCache responseCache, SearchIntentRouter intentRouter,
+                            PromptContextBuilder promptContextBuilder, FanOutEventSearch fanOutSearch,
+                            ConversationMemoryStore conversationMemoryStore, ChatMemoryProvider chatMemoryProvider,
+                            MeterRegistry meterRegistry) {
+        this.assistant = assistant;
+        this.extractor = extractor;
+        this.eventService = eventService;
+        this.bookingService = bookingService;
+        this.aiExecutor = aiExecutor;
+        this.responseCache = responseCache;
+        this.intentRouter = intentRouter;
+        this.promptContextBuilder = promptContextBuilder;
+        this.fanOutSearch = fanOutSearch;
+        this.conversationMemoryStore = conversationMemoryStore;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.meterRegistry = meterRegistry;
+        this.chatTimer = assistantTimer("chat", meterRegistry);
+        this.extractBookingInfoTimer = assistantTimer("extractBookingInfo", meterRegistry);
+        this.analyzeSearchQueryTimer = assistantTimer("analyzeSearchQuery", meterRegistry);
+    }
+    
     /**
-     * Process natural language query for ticket booking
+     * Async variants do not hold a thread while the model is generating: model calls
+     * complete through the LLM gateway's futures, and only the JPA work around them
+     * runs on the AI executor, so neither request nor executor threads wait on the LLM.
      */
-    public String processNaturalLanguageQuery(String userQuery) {
-        try {
-            log.info("Processing natural language query: {}", userQuery);
-            
-            // Analyze the query to understand intent
-            String searchAnalysis = assistant.analyzeSearchQuery(userQuery);
-            log.debug("Search analysis: {}", searchAnalysis);
-            
-            JsonNode analysisNode = objectMapper.readTree(searchAnalysis);
-            String searchType = analysisNode.get("searchType").asText();
-            String searchValue = analysisNode.has("searchValue") ? 
-                    analysisNode.get("searchValue").asText() : "";
-            
-            // Search for events based on analysis
-            List<Event> events = searchEvents(searchType, searchValue);
-            
-            // Generate AI response with event information
-            String eventInfo = formatEventsForAI(events);
-            String aiResponse = assistant.chat(
-                    "User asked: " + userQuery + 
-                    "\n\nAvailable events:\n" + eventInfo +
-                    "\n\nProvide a helpful response about these events."
-            );
-            
-            return aiResponse;
-            
-        } catch (Exception e) {
-            log.error("Error processing query", e);
-            return "I apologize, but I encountered an error processing your request. Please try again or contact support.";
+    public CompletableFuture<String> processNaturalLanguageQueryAsync(String conversationId, String userQuery) {
+        log.info("Processing natural language query: {}", userQuery);
+        
+        // Near-identical questions against the same catalog are answered from cache.
+        // Only a fresh conversation may share answers: with history the reply depends on it.
+        boolean shareable = !conversationMemoryStore.hasHistory(conversationId);
+        String cacheKey = responseCache.key(userQuery);
+        String cached = shareable ? responseCache.get(cacheKey) : null;
+        if (cached != null) {
+            log.debug("Answered from response cache: {}", cacheKey);
+            // The model never saw this turn, keep the conversation complete for follow-ups
+            ChatMemory memory = chatMemoryProvider.get(conversationId);
+            memory.add(UserMessage.from(userQuery));
+            memory.add(AiMessage.from(cached));
+            return CompletableFuture.completedFuture(cached);
         }
+        
+        // Generate AI response with event information
+        return buildQueryPrompt(userQuery)
+                .thenCompose(prompt -> timed(chatTimer, () -> assistant.chat(conversationId, prompt)))
+                .handleAsync((aiResponse, error) -> {
+                    if (error == null) {
+                        if (shareable) {
+                            responseCache.put(cacheKey, aiResponse);
+                        }
+                        return aiResponse;
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof LlmUnavailableException) {
+                        log.warn("Answering without the model: {}", cause.getMessage());
+                        return degradedAnswer(userQuery);
+                    }
+                    log.error("Error processing query", cause);
+                    return "I apologize, but I encountered an error processing your request. Please try again or contact support.";
+                }, aiExecutor);
     }
     
     /**
      * Process booking request using natural language
      */
-    public BookingResponse processNaturalLanguageBooking(String userMessage, Long eventId) {
-        try {
-            log.info("Processing natural language booking: {}", userMessage);
-            
-            // Extract booking information from natural language
-            String extractedInfo = assistant.extractBookingInfo(userMessage);
-            log.debug("Extracted booking info: {}", extractedInfo);
-            
-            JsonNode infoNode = objectMapper.readTree(extractedInfo);
-            
-            // Create booking request
-            BookingRequest request = new BookingRequest();
-            request.setEventId(eventId);
-            
-            if (infoNode.has("numberOfTickets") && !infoNode.get("numberOfTickets").isNull()) {
-                request.setNumberOfTickets(infoNode.get("numberOfTickets").asInt());
-            } else {
-                request.setNumberOfTickets(1); // Default
-            }
-            
-            if (infoNode.has("customerName") && !infoNode.get("customerName").isNull()) {
-                request.setCustomerName(infoNode.get("customerName").asText());
-            } else {
-                throw new RuntimeException("Customer name is required");
-            }
-            
-            if (infoNode.has("customerEmail") && !infoNode.get("customerEmail").isNull()) {
-                request.setCustomerEmail(infoNode.get("customerEmail").asText());
-            } else {
-                throw new RuntimeException("Customer email is required");
-            }
-            
-            // Create the booking
-            return bookingService.createBooking(request);
-            
-        } catch (Exception e) {
-            log.error("Error processing booking", e);
-            throw new RuntimeException("Failed to process booking: " + e.getMessage());
-        }
+    public CompletableFuture<BookingResponse> processNaturalLanguageBookingAsync(String userMessage, Long eventId) {
+        log.info("Processing natural language booking: {}", userMessage);
+        
+        // Extract booking information from natural language
+        return timed(extractBookingInfoTimer, () -> extractor.extractBookingInfo(userMessage))
+                .thenApplyAsync(extractedInfo -> book(extractedInfo, eventId), aiExecutor)
+                .exceptionally(error -> {
+                    Throwable cause = unwrap(error);
+                    log.error("Error processing booking", cause);
+                    throw new RuntimeException("Failed to process booking: " + cause.getMessage());
+                });
     }
     
     /**
      * Get AI-powered event recommendations
      */
-    public String getEventRecommendations(String preferences) {
+    public CompletableFuture<String> getEventRecommendationsAsync(String conversationId, String preferences) {
+        return CompletableFuture.supplyAsync(() -> buildRecommendationPrompt(preferences), aiExecutor)
+                .thenCompose(prompt -> timed(chatTimer, () -> assistant.chat(conversationId, prompt)))
+                .exceptionallyAsync(error -> {
+                    Throwable cause = unwrap(error);
+                    if (!(cause instanceof LlmUnavailableException)) {
+                        throw new CompletionException(cause);
+                    }
+                    log.warn("Recommending without the model: {}", cause.getMessage());
+                    return listEvents("Our assistant is busy right now. These events still have seats:",
+                            eventService.getAvailableEvents());
+                }, aiExecutor);
+    }
+    
+    /**
+     * Blocking variant for callers that have no future to compose with
+     */
+    public String processNaturalLanguageQuery(String conversationId, String userQuery) {
+        return processNaturalLanguageQueryAsync(conversationId, userQuery).join();
+    }
+    
+    /**
+     * Prepare the chat prompt off the request thread, then stream the answer to the
+     * handler through the LLM gateway; the returned handle stops the generation.
+     */
+    public CompletableFuture<LlmGateway.StreamHandle> streamNaturalLanguageQuery(String conversationId, String userQuery,
+                                                                               StreamingResponseHandler<AiMessage> handler) {
+        log.info("Streaming natural language query: {}", userQuery);
+        return buildQueryPrompt(userQuery).thenApply(prompt -> assistant.stream(conversationId, prompt, handler));
+    }
+    
+    public CompletableFuture<LlmGateway.StreamHandle> streamEventRecommendations(String conversationId, String preferences,
+                                                                               StreamingResponseHandler<AiMessage> handler) {
+        return CompletableFuture.supplyAsync(
+                () -> assistant.stream(conversationId, buildRecommendationPrompt(preferences), handler), aiExecutor);
+    }
+    
+    private BookingResponse book(String extractedInfo, Long eventId) {
+        log.debug("Extracted booking info: {}", extractedInfo);
+        
+        JsonNode infoNode;
+        try {
+            infoNode = objectMapper.readTree(extractedInfo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        
+        // Create booking request
+        BookingRequest request = new BookingRequest();
+        request.setEventId(eventId);
+        
+        if (infoNode.has("numberOfTickets") && !infoNode.get("numberOfTickets").isNull()) {
+            request.setNumberOfTickets(infoNode.get("numberOfTickets").asInt());
+        } else {
+            request.setNumberOfTickets(1); // Default
+        }
+        
+        if (infoNode.has("customerName") && !infoNode.get("customerName").isNull()) {
+            request.setCustomerName(infoNode.get("customerName").asText());
+        } else {
+            throw new RuntimeException("Customer name is required");
+        }
+        
+        if (infoNode.has("customerEmail") && !infoNode.get("customerEmail").isNull()) {
+            request.setCustomerEmail(infoNode.get("customerEmail").asText());
+        } else {
+            throw new RuntimeException("Customer email is required");
+        }
+        
+        // Create the booking
+        return bookingService.createBooking(request);
+    }
+    
+    private CompletableFuture<String> buildQueryPrompt(String userQuery) {
+        // Analyze the query to understand intent, locally when the rules are confident
+        return CompletableFuture.supplyAsync(() -> intentRouter.route(userQuery), aiExecutor)
+                .thenCompose(local -> local.map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> analyzeWithLlm(userQuery)))
+                .thenApplyAsync(intent -> {
+                    // Search for events based on analysis
+                    List<Event> events = searchEvents(intent, userQuery);
+                    
+                    String eventInfo = formatEventsForAI(events, userQuery);
+                    return "User asked: " + userQuery +
+                            "\n\nAvailable events:\n" + eventInfo +
+                            "\n\nProvide a helpful response about these events.";
+                }, aiExecutor);
+    }
+    
+    private String buildRecommendationPrompt(String preferences) {
         List<Event> allEvents = eventService.getAvailableEvents();
-        String eventInfo = formatEventsForAI(allEvents);
+        String eventInfo = formatEventsForAI(allEvents, preferences);
         
-        String query = "Based on user preferences: " + preferences +
+        return "Based on user preferences: " + preferences +
                 "\n\nAvailable events:\n" + eventInfo +
                 "\n\nRecommend the best events for this user and explain why.";
-        
-        return assistant.chat(query);
     }
     
-    private List<Event> searchEvents(String searchType, String searchValue) {
-        return switch (searchType) {
-            case "NAME" -> eventService.searchEventsByName(searchValue);
-            case "CATEGORY" -> eventService.getEventsByCategory(searchValue);
-            case "VENUE" -> eventService.searchEventsByVenue(searchValue);
+    private CompletableFuture<SearchIntentRouter.SearchIntent> analyzeWithLlm(String userQuery) {
+        long start = System.nanoTime();
+        return timed(analyzeSearchQueryTimer, () -> extractor.analyzeSearchQuery(userQuery)).thenApply(searchAnalysis -> {
+            intentRouter.recordLlmFallback(System.nanoTime() - start);
+            log.debug("Search analysis: {}", searchAnalysis);
+            
+            try {
+                JsonNode analysisNode = objectMapper.readTree(searchAnalysis);
+                String searchType = analysisNode.get("searchType").asText();
+                String searchValue = analysisNode.has("searchValue") ?
+                        analysisNode.get("searchValue").asText() : "";
+                return new SearchIntentRouter.SearchIntent(searchType, searchValue, 1.0);
+            } catch (Exception e) {
+                throw new RuntimeException("Could not parse search analysis: " + searchAnalysis, e);
+            }
+        });
+    }
+    
+    /**
+     * Targeted search for a clear intent; GENERAL, unknown or empty-handed intents
+     * fan out over all strategies instead of listing the whole catalog
+     */
+    private List<Event> searchEvents(SearchIntentRouter.SearchIntent intent, String userQuery) {
+        String searchValue = intent.searchValue();
+        boolean hasValue = searchValue != null && !searchValue.isBlank();
+        List<Event> events = switch (intent.searchType()) {
+            case "NAME" -> hasValue ? eventService.searchEventsByName(searchValue) : List.of();
+            case "CATEGORY" -> hasValue ? eventService.getEventsByCategory(searchValue) : List.of();
+            case "VENUE" -> hasValue ? eventService.searchEventsByVenue(searchValue) : List.of();
             case "DATE" -> eventService.getUpcomingEvents();
-            default -> eventService.getAvailableEvents();
+            default -> List.of();
         };
+        return events.isEmpty() ? fanOutSearch.search(userQuery) : events;
+    }
+    
+    /**
+     * Plain search results for when the model cannot answer: the query is routed by
+     * the local intent rules only and the matches are listed without any LLM call
+     */
+    private String degradedAnswer(String userQuery) {
+        SearchIntentRouter.SearchIntent intent = intentRouter.match(userQuery)
+                .orElse(new SearchIntentRouter.SearchIntent("GENERAL", "", 0));
+        List<Event> events = searchEvents(intent, userQuery);
+        return listEvents("Our assistant is busy right now. Here are the events matching your question:", events);
     }
     
-    private String formatEventsForAI(List<Event> events) {
+    private static String listEvents(String heading, List<Event> events) {
         if (events.isEmpty()) {
-            return "No events found.";
+            return "Our assistant is busy right now and no events matched your question. Please try again shortly.";
         }
-        
-        StringBuilder sb = new StringBuilder();
-        for (Event event : events) {
-            sb.append(String.format(
-                    "- %s at %s on %s (Category: %s, Price: $%.2f, Available Seats: %d)\n",
-                    event.getName(),
-                    event.getVenue(),
-                    event.getEventDate(),
-                    event.getCategory(),
-                    event.getTicketPrice(),
-                    event.getAvailableSeats()
-            ));
+        StringBuilder sb = new StringBuilder(heading);
+        events.stream().limit(DEGRADED_MAX_EVENTS).forEach(event -> sb.append("\n- ")
+                .append(event.getName()).append(" at ").append(event.getVenue())
+                .append(", ").append(event.getEventDate().toLocalDate())
+                .append(", $").append(String.format("%.2f", event.getTicketPrice()))
+                .append(", ").append(event.getAvailableSeats()).append(" seats left (event ID ")
+                .append(event.getId()).append(")"));
+        if (events.size() > DEGRADED_MAX_EVENTS) {
+            sb.append("\n...and ").append(events.size() - DEGRADED_MAX_EVENTS).append(" more.");
         }
         return sb.toString();
     }
+    
+    /**
+     * Latency of one assistant call, with percentiles per assistant method
+     */
+    private static Timer assistantTimer(String method, MeterRegistry meterRegistry) {
+        return Timer.builder("ai.assistant")
+                .description("TicketBookingAssistant call latency")
+                .tag("method", method)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    private <T> CompletableFuture<T> timed(Timer timer, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return call.get().whenComplete((result, error) -> sample.stop(timer));
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Compact, relevance-ranked and token-budgeted event list for the prompt
+     */
+    String formatEventsForAI(List<Event> events, String userText) {
+        return promptContextBuilder.build(events, userText);
+    }
 }
@@ -0,0 +1,153 @@
+package com.ticketbooking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of AI chat answers with a TTL.
+ * Keys are the normalized query plus the catalog and availability versions, so
+ * near-identical questions share an entry and any catalog change, or an event
+ * selling out or coming back, makes older entries unreachable. Answers quoting
+ * seat counts or availability only live for the shorter availability TTL, as
+ * the counts they quote change with every booking.
+ * Answers are shared across conversations, so AIBookingService only caches the
+ * ones given to conversations without prior history.
+ */
+@Component
+@RequiredArgsConstructor
+public class AIResponseCache {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "me", "show", "find", "list", "any", "all", "some", "please", "in", "at",
+            "for", "of", "on", "to", "i", "want", "what", "are", "is", "there", "can", "you", "get", "see"
+    );
+    
+    private static final Map<String, String> SYNONYMS = Map.of(
+            "nyc", "new york",
+            "ny", "new york",
+            "la", "los angeles",
+            "gig", "concert",
+            "gigs", "concert",
+            "theatre", "theater",
+            "game", "sports",
+            "match", "sports"
+    );
+    
+    private static final Pattern MENTIONS_AVAILABILITY = Pattern.compile(
+            "\\bseats?\\b|\\bavailab|sold[ -]out|tickets? left", Pattern.CASE_INSENSITIVE);
+    
+    private final CatalogVersion catalogVersion;
+    
+    @Value("${ai.cache.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${ai.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    @Value("${ai.cache.availability-ttl-seconds:15}")
+    private long availabilityTtlSeconds;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    
+    /**
+     * Cache key for a user query against the current catalog
+     */
+    public String key(String userQuery) {
+        return catalogVersion.current() + "." + catalogVersion.availability() + "|" + normalize(userQuery);
+    }
+    
+    public String get(String key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (now - entry.expiresAtNanos > 0) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void put(String key, String value) {
+        lock.lock();
+        try {
+            long ttl = MENTIONS_AVAILABILITY.matcher(value).find() ? availabilityTtlSeconds : ttlSeconds;
+            entries.put(key, new Entry(value, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl)));
+            while (entries.size() > maxEntries) {
+                String eldest = entries.keySet().iterator().next();
+                entries.remove(eldest);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum(),
+                "expirations", expirations.sum(),
+                "size", (long) size()
+        );
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Lower-case, drop punctuation and filler words, map common synonyms and
+     * plurals, then sort the remaining terms so word order does not matter.
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String cleaned = query.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ");
+        return Arrays.stream(cleaned.split("\\s+"))
+                .filter(term -> !term.isBlank())
+                .flatMap(term -> Arrays.stream(SYNONYMS.getOrDefault(term, term).split(" ")))
+                .map(term -> term.length() > 3 && term.endsWith("s") ? term.substring(0, term.length() - 1) : term)
+                .filter(term -> !STOP_WORDS.contains(term))
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(" "));
+    }
+    
+    private record Entry(String value, long expiresAtNanos) {
+    }
+}
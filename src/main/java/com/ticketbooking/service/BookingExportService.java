@@ -0,0 +1,161 @@
+package com.ticketbooking.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes every booking of an event to an output stream as NDJSON or CSV.
+ * Rows are read through a forward-only JDBC cursor and the persistence context
+ * is cleared after each fetch batch, so memory stays flat however large the event.
+ * Assigned seats are loaded with one query per batch rather than per booking.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportService {
+    
+    private static final String CSV_HEADER =
+            "bookingId,bookingReference,customerName,customerEmail,numberOfTickets,totalAmount,bookingDate,status,seatIds\n";
+    
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    
+    @Value("${booking.export.batch-size:500}")
+    private int batchSize;
+    
+    public enum Format {
+        NDJSON, CSV
+    }
+    
+    public void export(Long eventId, Format format, OutputStream out) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<Booking> bookings = bookingRepository.streamByEventId(eventId)) {
+                if (format == Format.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+                long rows = 0;
+                List<Booking> batch = new ArrayList<>(batchSize);
+                Iterator<Booking> it = bookings.iterator();
+                while (it.hasNext()) {
+                    batch.add(it.next());
+                    // First row goes out at once, then one flush per fetch batch
+                    if (rows == 0 || batch.size() == batchSize) {
+                        rows += writeBatch(writer, format, batch);
+                    }
+                }
+                rows += writeBatch(writer, format, batch);
+                log.info("Exported {} bookings for event {} as {}", rows, eventId, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Booking export for event " + eventId + " failed", e);
+            }
+        });
+    }
+    
+    /**
+     * Write the buffered bookings with their seats, then release them from the persistence context
+     */
+    private int writeBatch(Writer writer, Format format, List<Booking> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<String>> seats = new HashMap<>();
+        for (Object[] row : bookingRepository.findSeatIdsByBookingIds(batch.stream().map(Booking::getId).toList())) {
+            seats.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Booking booking : batch) {
+            List<String> seatIds = seats.getOrDefault(booking.getId(), List.of());
+            if (format == Format.CSV) {
+                writeCsv(writer, booking, seatIds);
+            } else {
+                writeJson(writer, booking, seatIds);
+            }
+        }
+        int written = batch.size();
+        batch.clear();
+        entityManager.clear();
+        writer.flush();
+        return written;
+    }
+    
+    private void writeJson(Writer writer, Booking booking, List<String> seatIds) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeNumberField("bookingId", booking.getId());
+        json.writeStringField("bookingReference", booking.getBookingReference());
+        json.writeStringField("customerName", booking.getCustomerName());
+        json.writeStringField("customerEmail", booking.getCustomerEmail());
+        json.writeNumberField("numberOfTickets", booking.getNumberOfTickets());
+        json.writeNumberField("totalAmount", booking.getTotalAmount());
+        json.writeStringField("bookingDate", booking.getBookingDate().toString());
+        json.writeStringField("status", booking.getStatus().name());
+        json.writeArrayFieldStart("seatIds");
+        for (String seatId : seatIds) {
+            json.writeString(seatId);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.close();
+        writer.write('\n');
+    }
+    
+    private void writeCsv(Writer writer, Booking booking, List<String> seatIds) throws IOException {
+        writer.write(String.valueOf(booking.getId()));
+        writer.write(',');
+        writer.write(csv(booking.getBookingReference()));
+        writer.write(',');
+        writer.write(csv(booking.getCustomerName()));
+        writer.write(',');
+        writer.write(csv(booking.getCustomerEmail()));
+        writer.write(',');
+        writer.write(String.valueOf(booking.getNumberOfTickets()));
+        writer.write(',');
+        writer.write(String.valueOf(booking.getTotalAmount()));
+        writer.write(',');
+        writer.write(booking.getBookingDate().toString());
+        writer.write(',');
+        writer.write(booking.getStatus().name());
+        writer.write(',');
+        // Semicolon-separated, section names may contain spaces but no punctuation
+        writer.write(csv(String.join(";", seatIds)));
+        writer.write('\n');
+    }
+    
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,26 @@
+package com.ticketbooking.service;
+
+/**
+ * A booking or hold that was refused for a known reason: sold out, unknown event
+ * or lost to concurrent buyers. The outcome is what BookingMetrics counts it as.
+ */
+public class BookingFailedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final BookingMetrics.Outcome outcome;
+    
+    public BookingFailedException(BookingMetrics.Outcome outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+    
+    public BookingFailedException(BookingMetrics.Outcome outcome, String message, Throwable cause) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+    
+    public BookingMetrics.Outcome getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,654 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind journal for confirmed bookings.
+ * Bookings are appended to memory-mapped segment files and acknowledged once
+ * a batched fsync covers them; a background drainer then batch-inserts them
+ * into the bookings table. Entries not yet drained are replayed at startup.
+ *
+ * An entry reaches the drainer only once the transaction that booked it has
+ * committed. If that transaction rolls back, its seats are given back and a
+ * tombstone frame makes replay skip the entry. Records the database rejects
+ * for good are moved to a dead-letter file so they cannot stall the drainer.
+ *
+ * Frame layout: [int payloadLength][int crc32][payload]. A zero length marks
+ * the end of the written part of a segment, the high bit of the length marks a
+ * tombstone whose payload is the booking reference.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.write-mode", havingValue = "JOURNAL")
+@RequiredArgsConstructor
+@Slf4j
+public class BookingJournal {
+    
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int TOMBSTONE_FLAG = 1 << 31;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+    
+    private final BookingRepository bookingRepository;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${booking.journal.dir:./data/journal}")
+    private String journalDir;
+    
+    @Value("${booking.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+    
+    @Value("${booking.journal.fsync-interval-ms:2}")
+    private long fsyncIntervalMs;
+    
+    @Value("${booking.journal.drain-batch-size:500}")
+    private int drainBatchSize;
+    
+    @Value("${booking.inventory.mode:MEMORY}")
+    private BookingService.InventoryMode inventoryMode;
+    
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    // Undrained entries by append sequence, which is also their order in the segments
+    private final ConcurrentSkipListMap<Long, PendingEntry> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, BookingResponse> pendingResponses = new ConcurrentHashMap<>();
+    
+    private Path directory;
+    private int segmentSize;
+    private long segmentIndex;
+    private long checkpointSegment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long appendedSeq;
+    private volatile long durableSeq;
+    private volatile boolean running;
+    private Thread fsyncThread;
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (inventoryMode != BookingService.InventoryMode.MEMORY) {
+            throw new IllegalStateException("booking.write-mode=JOURNAL requires booking.inventory.mode=MEMORY");
+        }
+        directory = Paths.get(journalDir);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+        Files.createDirectories(directory);
+        
+        replay();
+        // Bring the bookings table up to date before the seat inventory is loaded
+        drain();
+        deleteSegmentsBefore(segmentIndex);
+        checkpointSegment = segmentIndex;
+        
+        running = true;
+        fsyncThread = new Thread(this::fsyncLoop, "booking-journal-fsync");
+        fsyncThread.setDaemon(true);
+        fsyncThread.start();
+        log.info("Booking journal started in {} at segment {}", directory, segmentIndex);
+    }
+    
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        fsyncThread.join(TimeUnit.SECONDS.toMillis(5));
+        forceAll();
+        drain();
+        channel.close();
+    }
+    
+    /**
+     * Append a confirmed booking and block until it is durable on disk. Inside a
+     * transaction the entry is handed to the drainer when the transaction commits
+     * and tombstoned when it rolls back, because the rollback gives the seats back.
+     */
+    public void append(Booking booking, BookingResponse response) {
+        JournalRecord record = JournalRecord.of(booking);
+        PendingEntry entry;
+        long seq;
+        appendLock.lock();
+        try {
+            seq = writeFrame(record.encode(), false);
+            entry = new PendingEntry(record, response, segmentIndex, buffer.position());
+            entries.put(seq, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append booking to journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        publish(entry);
+                    } else {
+                        abort(entry);
+                    }
+                }
+            });
+            awaitDurable(seq);
+            return;
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            abort(entry);
+            throw e;
+        }
+        publish(entry);
+    }
+    
+    /**
+     * Booking that is journaled but not yet in the database, or null
+     */
+    public BookingResponse findPending(String bookingReference) {
+        return pendingResponses.get(bookingReference);
+    }
+    
+    /**
+     * Visit the seat ids of journaled bookings that are not yet in the database
+     */
+    public void forEachPendingSeat(BiConsumer<Long, String> action) {
+        for (PendingEntry entry : entries.values()) {
+            if (entry.state == EntryState.COMMITTED) {
+                entry.record.seatIds().forEach(seatId -> action.accept(entry.record.eventId(), seatId));
+            }
+        }
+    }
+    
+    /**
+     * Make sure a journaled booking has reached the database before it is modified
+     */
+    public void awaitDrained(String bookingReference) {
+        if (pendingResponses.containsKey(bookingReference)) {
+            drain();
+        }
+    }
+    
+    /**
+     * Move journaled bookings into the bookings table in batches
+     */
+    @Scheduled(fixedDelayString = "${booking.journal.drain-interval-ms:50}")
+    public synchronized void drain() {
+        try {
+            while (drainBatch() > 0) {
+                // keep going until the queue is empty
+            }
+        } catch (Exception e) {
+            log.error("Failed to drain booking journal, will retry", e);
+        }
+    }
+    
+    /**
+     * Drain committed entries from the head of the journal. Tombstoned entries are
+     * skipped, an entry whose transaction is still open stops the batch so the
+     * checkpoint never passes it.
+     */
+    private int drainBatch() throws IOException {
+        List<PendingEntry> consumed = new ArrayList<>(drainBatchSize);
+        long lastSeq = 0;
+        for (Map.Entry<Long, PendingEntry> head : entries.entrySet()) {
+            if (head.getValue().state == EntryState.WRITTEN || consumed.size() == drainBatchSize) {
+                break;
+            }
+            consumed.add(head.getValue());
+            lastSeq = head.getKey();
+        }
+        if (consumed.isEmpty()) {
+            return 0;
+        }
+        
+        List<PendingEntry> committed = consumed.stream()
+                .filter(entry -> entry.state == EntryState.COMMITTED)
+                .toList();
+        if (!committed.isEmpty()) {
+            insertIsolatingFailures(committed);
+        }
+        
+        entries.headMap(lastSeq, true).clear();
+        committed.forEach(entry -> pendingResponses.remove(entry.record.bookingReference()));
+        PendingEntry last = consumed.get(consumed.size() - 1);
+        writeCheckpoint(last.segmentIndex, last.endOffset);
+        if (last.segmentIndex > checkpointSegment) {
+            deleteSegmentsBefore(last.segmentIndex);
+        }
+        checkpointSegment = last.segmentIndex;
+        log.debug("Drained {} journaled bookings", consumed.size());
+        return consumed.size();
+    }
+    
+    /**
+     * Insert the batch in one transaction. If the database rejects it for good,
+     * insert row by row and move the rows it still rejects to the dead-letter file.
+     * Transient failures propagate and the whole batch is retried later.
+     */
+    private void insertIsolatingFailures(List<PendingEntry> batch) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            return;
+        } catch (RuntimeException e) {
+            if (!isPermanent(e)) {
+                throw e;
+            }
+            log.warn("Journal batch of {} bookings was rejected, inserting one at a time", batch.size(), e);
+        }
+        for (PendingEntry entry : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+            } catch (RuntimeException e) {
+                if (!isPermanent(e)) {
+                    throw e;
+                }
+                deadLetter(entry.record.bookingReference(), entry.record.encode(), e);
+            }
+        }
+    }
+    
+    /**
+     * Constraint violations and unreadable records fail the same way on every
+     * retry, an unreachable database does not
+     */
+    private static boolean isPermanent(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException
+                || !(e instanceof DataAccessException || e instanceof TransactionException);
+    }
+    
+    private void insert(List<PendingEntry> batch) {
+        // Replayed entries may already have been inserted before a crash
+        Set<String> existing = bookingRepository.findExistingReferences(
+                batch.stream().map(entry -> entry.record.bookingReference()).toList());
+        
+        List<Booking> bookings = new ArrayList<>(batch.size());
+        Map<Long, Integer> seatsByEvent = new HashMap<>();
+        for (PendingEntry entry : batch) {
+            JournalRecord record = entry.record;
+            if (existing.contains(record.bookingReference())) {
+                continue;
+            }
+            bookings.add(record.toBooking(eventRepository.getReferenceById(record.eventId())));
+            seatsByEvent.merge(record.eventId(), record.numberOfTickets(), Integer::sum);
+        }
+        bookingRepository.saveAll(bookings);
+        // Seats for journaled bookings are only written back here, in the same transaction
+        seatsByEvent.forEach((eventId, seats) -> eventRepository.adjustAvailableSeats(eventId, -seats));
+    }
+    
+    private void publish(PendingEntry entry) {
+        pendingResponses.put(entry.record.bookingReference(), entry.response);
+        entry.state = EntryState.COMMITTED;
+    }
+    
+    /**
+     * The tombstone is not awaited: until it is durable a crash can still replay
+     * the booking, which then also deducts its seats, so nothing is oversold
+     */
+    private void abort(PendingEntry entry) {
+        entry.state = EntryState.ABORTED;
+        appendLock.lock();
+        try {
+            writeFrame(entry.record.bookingReference().getBytes(StandardCharsets.UTF_8), true);
+        } catch (IOException e) {
+            log.error("Failed to tombstone journaled booking {}", entry.record.bookingReference(), e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /**
+     * Called with appendLock held, returns the sequence number of the frame
+     */
+    private long writeFrame(byte[] payload, boolean tombstone) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (buffer.remaining() < FRAME_HEADER_BYTES + payload.length + 4) {
+            rollSegment();
+        }
+        buffer.putInt(tombstone ? payload.length | TOMBSTONE_FLAG : payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        return ++appendedSeq;
+    }
+    
+    private void deadLetter(String reference, byte[] payload, Exception cause) throws IOException {
+        log.error("Moving journaled booking {} to the dead-letter file", reference, cause);
+        String line = reference + "\t" + String.valueOf(cause.getMessage()).replaceAll("\\s+", " ")
+                + "\t" + Base64.getEncoder().encodeToString(payload) + "\n";
+        Files.writeString(directory.resolve(DEAD_LETTER_FILE), line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+    }
+    
+    private void fsyncLoop() {
+        while (running) {
+            try {
+                forceAll();
+                Thread.sleep(fsyncIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Booking journal fsync failed", e);
+            }
+        }
+    }
+    
+    private void forceAll() {
+        long target;
+        MappedByteBuffer current;
+        appendLock.lock();
+        try {
+            target = appendedSeq;
+            current = buffer;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target > durableSeq) {
+            current.force();
+            markDurable(target);
+        }
+    }
+    
+    private void markDurable(long seq) {
+        durableLock.lock();
+        try {
+            if (seq > durableSeq) {
+                durableSeq = seq;
+                durableAdvanced.signalAll();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+    
+    private void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSeq < seq) {
+                durableAdvanced.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for booking journal fsync", e);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+    
+    /**
+     * Called with appendLock held. Everything appended so far lives in the old
+     * segment, so forcing it here makes all of it durable.
+     */
+    private void rollSegment() throws IOException {
+        buffer.force();
+        markDurable(appendedSeq);
+        channel.close();
+        openSegment(segmentIndex + 1, 0);
+    }
+    
+    private void openSegment(long index, int position) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.position(position);
+    }
+    
+    private void replay() throws IOException {
+        long[] checkpoint = readCheckpoint();
+        List<Long> segments = listSegments();
+        long lastSegment = Math.max(checkpoint[0], segments.isEmpty() ? 0 : segments.get(segments.size() - 1));
+        int lastPosition = (int) checkpoint[1];
+        Map<String, PendingEntry> byReference = new HashMap<>();
+        
+        for (long index : segments) {
+            if (index < checkpoint[0]) {
+                continue;
+            }
+            openSegment(index, index == checkpoint[0] ? (int) checkpoint[1] : 0);
+            while (buffer.remaining() >= FRAME_HEADER_BYTES) {
+                int start = buffer.position();
+                int header = buffer.getInt();
+                int crc = buffer.getInt();
+                int length = header & ~TOMBSTONE_FLAG;
+                if (length == 0 || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 actual = new CRC32();
+                actual.update(payload);
+                if ((int) actual.getValue() != crc) {
+                    log.warn("Torn journal frame in segment {} at offset {}, truncating", index, start);
+                    buffer.position(start);
+                    break;
+                }
+                if ((header & TOMBSTONE_FLAG) != 0) {
+                    // The booking transaction rolled back after its entry was written
+                    PendingEntry aborted = byReference.remove(new String(payload, StandardCharsets.UTF_8));
+                    if (aborted != null) {
+                        aborted.state = EntryState.ABORTED;
+                    }
+                    continue;
+                }
+                JournalRecord record;
+                try {
+                    record = JournalRecord.decode(payload);
+                } catch (RuntimeException e) {
+                    deadLetter("segment " + index + " offset " + start, payload, e);
+                    continue;
+                }
+                PendingEntry entry = new PendingEntry(record, null, index, buffer.position());
+                entry.state = EntryState.COMMITTED;
+                entries.put(++appendedSeq, entry);
+                byReference.put(record.bookingReference(), entry);
+            }
+            if (index == lastSegment) {
+                lastPosition = buffer.position();
+            }
+            channel.close();
+        }
+        durableSeq = appendedSeq;
+        
+        openSegment(lastSegment, lastPosition);
+        // Clear any torn tail so a later replay stops at the right place
+        buffer.duplicate().putInt(0);
+        if (!entries.isEmpty()) {
+            log.info("Replaying {} journaled bookings", entries.size());
+        }
+    }
+    
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("journal-") && name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+    
+    private void deleteSegmentsBefore(long index) throws IOException {
+        for (long segment : listSegments()) {
+            if (segment < index) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+    
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return new long[] {0, 0};
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        return new long[] {data.getLong(), data.getLong()};
+    }
+    
+    private void writeCheckpoint(long segment, long offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer data = ByteBuffer.allocate(16).putLong(segment).putLong(offset).flip();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(data);
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("journal-%010d.log", index));
+    }
+    
+    private enum EntryState {
+        /** On disk, the booking transaction has not finished yet */
+        WRITTEN,
+        COMMITTED,
+        ABORTED
+    }
+    
+    private static final class PendingEntry {
+        private final JournalRecord record;
+        private final BookingResponse response;
+        private final long segmentIndex;
+        private final int endOffset;
+        private volatile EntryState state = EntryState.WRITTEN;
+        
+        private PendingEntry(JournalRecord record, BookingResponse response, long segmentIndex, int endOffset) {
+            this.record = record;
+            this.response = response;
+            this.segmentIndex = segmentIndex;
+            this.endOffset = endOffset;
+        }
+    }
+    
+    private record JournalRecord(String bookingReference, Long eventId, String customerName,
+                                 String customerEmail, int numberOfTickets, double totalAmount,
+                                 LocalDateTime bookingDate, List<String> seatIds) {
+        
+        static JournalRecord of(Booking booking) {
+            return new JournalRecord(
+                    booking.getBookingReference(),
+                    booking.getEvent().getId(),
+                    booking.getCustomerName(),
+                    booking.getCustomerEmail(),
+                    booking.getNumberOfTickets(),
+                    booking.getTotalAmount(),
+                    booking.getBookingDate(),
+                    List.copyOf(booking.getSeatIds())
+            );
+        }
+        
+        Booking toBooking(Event event) {
+            Booking booking = new Booking();
+            booking.setEvent(event);
+            booking.setBookingReference(bookingReference);
+            booking.setCustomerName(customerName);
+            booking.setCustomerEmail(customerEmail);
+            booking.setNumberOfTickets(numberOfTickets);
+            booking.setTotalAmount(totalAmount);
+            booking.setBookingDate(bookingDate);
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+            booking.setSeatIds(new ArrayList<>(seatIds));
+            return booking;
+        }
+        
+        byte[] encode() {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeUTF(bookingReference);
+                out.writeLong(eventId);
+                out.writeUTF(customerName);
+                out.writeUTF(customerEmail);
+                out.writeInt(numberOfTickets);
+                out.writeDouble(totalAmount);
+                out.writeUTF(bookingDate.toString());
+                // Seat ids go last so records written before assigned seating still decode
+                out.writeInt(seatIds.size());
+                for (String seatId : seatIds) {
+                    out.writeUTF(seatId);
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        static JournalRecord decode(byte[] payload) {
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                String bookingReference = in.readUTF();
+                long eventId = in.readLong();
+                String customerName = in.readUTF();
+                String customerEmail = in.readUTF();
+                int numberOfTickets = in.readInt();
+                double totalAmount = in.readDouble();
+                LocalDateTime bookingDate = LocalDateTime.parse(in.readUTF());
+                List<String> seatIds = new ArrayList<>();
+                if (in.available() > 0) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        seatIds.add(in.readUTF());
+                    }
+                }
+                return new JournalRecord(bookingReference, eventId, customerName, customerEmail,
+                        numberOfTickets, totalAmount, bookingDate, seatIds);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ticketbooking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the booking hot path. Every timer and counter is registered up front
+ * and looked up by array index, so recording is a clock read plus a histogram
+ * update with no tag or meter allocation per booking.
+ */
+@Component
+public class BookingMetrics {
+    
+    public enum Operation {
+        CREATE_BOOKING("createBooking"),
+        CREATE_HOLD("createHold"),
+        CONFIRM_HOLD("confirmHold"),
+        CANCEL_BOOKING("cancelBooking"),
+        GET_BY_REFERENCE("getBookingByReference"),
+        GET_BY_EMAIL("getBookingsByEmail"),
+        CREATE_BULK("createBookingsBulk");
+        
+        private final String method;
+        
+        Operation(String method) {
+            this.method = method;
+        }
+    }
+    
+    public enum Outcome {
+        SUCCESS, SOLD_OUT, NOT_FOUND, CONFLICT, ERROR
+    }
+    
+    private final Timer[] timers = new Timer[Operation.values().length];
+    private final Counter[] outcomes = new Counter[Outcome.values().length];
+    private final Counter retries;
+    private final Counter retriesExhausted;
+    
+    public BookingMetrics(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            timers[operation.ordinal()] = Timer.builder("booking.service")
+                    .description("BookingService method latency")
+                    .tag("method", operation.method)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomes[outcome.ordinal()] = Counter.builder("booking.outcomes")
+                    .description("Booking and hold attempts by result")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+        retries = Counter.builder("booking.contention.retries")
+                .description("Booking transactions re-run after losing a concurrent seat update")
+                .register(registry);
+        retriesExhausted = Counter.builder("booking.contention.exhausted")
+                .description("Bookings that failed after running out of retries")
+                .register(registry);
+    }
+    
+    public void record(Operation operation, long startNanos) {
+        timers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void succeeded() {
+        outcomes[Outcome.SUCCESS.ordinal()].increment();
+    }
+    
+    /**
+     * Count a failed booking by the outcome BookingService raised it with; anything
+     * else is an error
+     */
+    public void failed(RuntimeException e) {
+        Outcome outcome = e instanceof BookingFailedException failure ? failure.getOutcome() : Outcome.ERROR;
+        outcomes[outcome.ordinal()].increment();
+    }
+    
+    public void retried() {
+        retries.increment();
+    }
+    
+    public void retriesExhausted() {
+        retriesExhausted.increment();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ticketbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-ordered, collision-free booking references in the style of Snowflake ids.
+ *
+ * A 64-bit id packs milliseconds since 2024-01-01 (42 bits, good for 139 years), the
+ * node id (8 bits), a stripe (4 bits) and a per-millisecond sequence (10 bits). Each
+ * stripe owns its own counter on its own cache line and threads are spread over the
+ * stripes, so concurrent callers rarely touch the same word. A counter never moves
+ * backwards: a stripe that runs out of sequence numbers borrows the next millisecond,
+ * and a clock step back just keeps counting from the last id.
+ *
+ * References are "BK-" followed by the id in Crockford base32 (13 symbols) and a
+ * Crockford mod-37 check symbol, so a mistyped reference is recognised without a lookup.
+ */
+@Component
+public class BookingReferenceGenerator {
+    
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 10;
+    private static final int STRIPE_BITS = 4;
+    private static final int NODE_BITS = 8;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int PADDING = 8; // longs per 64-byte cache line
+    
+    private static final String PREFIX = "BK-";
+    private static final int ID_SYMBOLS = 13;
+    private static final int LENGTH = PREFIX.length() + ID_SYMBOLS + 1;
+    private static final char[] SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ*~$=U".toCharArray();
+    
+    @Value("${booking.reference.node-id:0}")
+    private int nodeId;
+    
+    // Per stripe: (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last id
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * PADDING);
+    
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+            throw new IllegalStateException("booking.reference.node-id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+    }
+    
+    public String next() {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        long clock = stripes.updateAndGet(stripe * PADDING, last -> Math.max(last + 1, now));
+        long millis = clock >>> SEQUENCE_BITS;
+        long sequence = clock & ((1 << SEQUENCE_BITS) - 1);
+        long id = millis << (NODE_BITS + STRIPE_BITS + SEQUENCE_BITS)
+                | (long) nodeId << (STRIPE_BITS + SEQUENCE_BITS)
+                | (long) stripe << SEQUENCE_BITS
+                | sequence;
+        return encode(id);
+    }
+    
+    /**
+     * False for references in the generator's format whose check symbol does not match.
+     * References of other shapes (issued before this format) are passed through.
+     */
+    public boolean isPlausible(String reference) {
+        if (reference.length() != LENGTH || !reference.startsWith(PREFIX)) {
+            return true;
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < LENGTH - 1; i++) {
+            int value = decode(reference.charAt(i));
+            // 13 symbols hold 65 bits, so the leading one only carries the top 4 bits of the id
+            if (value < 0 || value >= (i == PREFIX.length() ? 16 : 32)) {
+                return false;
+            }
+            id = id << 5 | value;
+        }
+        return decode(reference.charAt(LENGTH - 1)) == Long.remainderUnsigned(id, SYMBOLS.length);
+    }
+    
+    private static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        long rest = id;
+        for (int i = LENGTH - 2; i >= PREFIX.length(); i--) {
+            chars[i] = SYMBOLS[(int) (rest & 31)];
+            rest >>>= 5;
+        }
+        chars[LENGTH - 1] = SYMBOLS[(int) Long.remainderUnsigned(id, SYMBOLS.length)];
+        return new String(chars);
+    }
+    
+    private static int decode(char symbol) {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            if (SYMBOLS[i] == symbol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
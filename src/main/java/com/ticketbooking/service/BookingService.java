@@ -2,54 +2,326 @@ package com.ticketbooking.service;
 
 import com.ticketbooking.dto.BookingRequest;
 import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.dto.BookingView;
+import com.ticketbooking.dto.BulkBookingRequest;
+import com.ticketbooking.dto.BulkBookingResult;
+import com.ticketbooking.dto.CursorPage;
 import com.ticketbooking.entity.Booking;
 import com.ticketbooking.entity.Event;
 import com.ticketbooking.repository.BookingRepository;
 import com.ticketbooking.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
     
+    // Bookings per IN list when loading assigned seats for a list of views
+    private static final int SEAT_LOOKUP_CHUNK = 1000;
+    
     private final BookingRepository bookingRepository;
     private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<BookingJournal> bookingJournal;
+    private final EventCache eventCache;
+    private final SeatMap seatMap;
+    private final BookingReferenceGenerator referenceGenerator;
+    private final BookingMetrics metrics;
+    private final CatalogVersion catalogVersion;
+    
+    @Value("${booking.inventory.mode:MEMORY}")
+    private InventoryMode inventoryMode;
+    
+    @Value("${booking.write-mode:DIRECT}")
+    private WriteMode writeMode;
+    
+    @Value("${booking.batch.max-size:64}")
+    private int batchMaxSize;
+    
+    @Value("${booking.batch.max-wait-ms:5}")
+    private long batchMaxWaitMs;
+    
+    @Value("${api.pagination.max-size:100}")
+    private int maxPageSize;
+    
+    @Value("${booking.retry.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${booking.retry.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+    
+    @Value("${booking.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+    
+    @Value("${booking.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+    
+    @Value("${booking.hold.duration-minutes:10}")
+    private long holdMinutes;
+    
+    @Value("${booking.hold.tick-ms:1000}")
+    private long holdTickMs;
+    
+    @Value("${booking.hold.wheel-size:512}")
+    private int holdWheelSize;
+    
+    @Value("${booking.hold.expiry-batch-size:500}")
+    private int holdExpiryBatchSize;
+    
+    /**
+     * Where seat availability is checked and decremented
+     */
+    public enum InventoryMode {
+        /** CAS on the in-memory SeatInventory, written back asynchronously */
+        MEMORY,
+        /** Conditional UPDATE on the events row, no row lock held across the transaction */
+        DATABASE,
+        /** SELECT ... FOR UPDATE on the events row, kept as a baseline for comparison */
+        PESSIMISTIC
+    }
+    
+    /**
+     * How confirmed bookings reach the bookings table
+     */
+    public enum WriteMode {
+        /** One transaction and one INSERT per request */
+        DIRECT,
+        /** Appended to the local BookingJournal and drained in the background */
+        JOURNAL,
+        /** Concurrent requests coalesced into one transaction with batched INSERTs */
+        BATCH
+    }
+    
+    private RequestCoalescer<BookingRequest, BookingResponse> coalescer;
+    private TimingWheel<String> holdExpiry;
+    
+    @PostConstruct
+    public void init() {
+        if (writeMode == WriteMode.BATCH) {
+            coalescer = new RequestCoalescer<>("booking-coalescer", batchMaxSize, batchMaxWaitMs, this::createBookingGroup);
+        }
+        holdExpiry = new TimingWheel<>("hold-expiry", holdTickMs, holdWheelSize, holdExpiryBatchSize, this::expireHolds);
+    }
+    
+    /**
+     * Put holds that were pending before a restart back on the expiry wheel
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePendingHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> holds = bookingRepository.findHoldExpiries(Booking.BookingStatus.PENDING);
+        for (Object[] hold : holds) {
+            holdExpiry.schedule((String) hold[0], Duration.between(now, (LocalDateTime) hold[1]).toMillis());
+        }
+        if (!holds.isEmpty()) {
+            log.info("Rescheduled {} pending holds", holds.size());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+        holdExpiry.shutdown();
+    }
     
-    @Transactional
     public BookingResponse createBooking(BookingRequest request) {
         log.info("Creating booking for event: {}", request.getEventId());
-        
+        long start = System.nanoTime();
+        try {
+            BookingResponse response;
+            if (coalescer != null) {
+                try {
+                    response = coalescer.submit(request).join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            } else {
+                response = withRetry(() -> transactionTemplate.execute(status -> doCreateBooking(request)));
+            }
+            metrics.succeeded();
+            return response;
+        } catch (RuntimeException e) {
+            metrics.failed(e);
+            throw e;
+        } finally {
+            metrics.record(BookingMetrics.Operation.CREATE_BOOKING, start);
+        }
+    }
+    
+    public BookingResponse getBookingByReference(String reference) {
+        long start = System.nanoTime();
+        try {
+            requirePlausible(reference);
+            if (bookingJournal.isPresent()) {
+                BookingResponse pending = bookingJournal.get().findPending(reference);
+                if (pending != null) {
+                    return pending;
+                }
+            }
+            BookingResponse response = bookingRepository.findViewByBookingReference(reference)
+                    .map(this::mapToResponse)
+                    .orElseThrow(() -> new RuntimeException("Booking not found with reference: " + reference));
+            response.setSeatIds(bookingRepository.findSeatIdsByBookingReference(reference));
+            return response;
+        } finally {
+            metrics.record(BookingMetrics.Operation.GET_BY_REFERENCE, start);
+        }
+    }
+    
+    /**
+     * Built straight from one booking/event join plus one query for assigned seats, no entities are loaded
+     */
+    public List<BookingResponse> getBookingsByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return mapViews(bookingRepository.findViewsByCustomerEmail(email));
+        } finally {
+            metrics.record(BookingMetrics.Operation.GET_BY_EMAIL, start);
+        }
+    }
+    
+    /**
+     * Page through a customer's bookings in id order, selecting only the returned columns
+     */
+    public CursorPage<BookingResponse> getBookingsByEmailPage(String email, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<BookingView> rows = bookingRepository.findViewsByCustomerEmailAfter(
+                email, CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        CursorPage<BookingView> page = CursorPage.of(rows, pageSize, BookingView::getBookingId);
+        return new CursorPage<>(mapViews(page.getItems()), page.getNextCursor());
+    }
+    
+    public BookingResponse cancelBooking(String reference) {
+        long start = System.nanoTime();
+        try {
+            requirePlausible(reference);
+            bookingJournal.ifPresent(journal -> journal.awaitDrained(reference));
+            return withRetry(() -> transactionTemplate.execute(status -> doCancelBooking(reference)));
+        } finally {
+            metrics.record(BookingMetrics.Operation.CANCEL_BOOKING, start);
+        }
+    }
+    
+    /**
+     * Book many items across events. ALL_OR_NOTHING runs every item in one transaction
+     * and rolls all of them back if any fails; BEST_EFFORT commits chunks of items on
+     * their own. The results of each transaction go to the sink in item order.
+     */
+    public void createBookingsBulk(List<BookingRequest> items, BulkBookingRequest.Mode mode,
+                                   Consumer<List<BulkBookingResult>> sink) {
+        log.info("Creating {} bookings in bulk ({})", items.size(), mode);
+        long start = System.nanoTime();
+        try {
+            boolean allOrNothing = mode == BulkBookingRequest.Mode.ALL_OR_NOTHING;
+            int chunkSize = allOrNothing ? items.size() : bulkChunkSize;
+            for (int from = 0; from < items.size(); from += chunkSize) {
+                List<BookingRequest> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+                List<Object> outcomes = withRetry(() -> transactionTemplate.execute(status -> {
+                    List<Object> results = doCreateBulk(chunk);
+                    if (allOrNothing && results.stream().anyMatch(RuntimeException.class::isInstance)) {
+                        status.setRollbackOnly();
+                    }
+                    return results;
+                }));
+                boolean rolledBack = allOrNothing && outcomes.stream().anyMatch(RuntimeException.class::isInstance);
+                List<BulkBookingResult> results = new ArrayList<>(outcomes.size());
+                for (int i = 0; i < outcomes.size(); i++) {
+                    Object outcome = outcomes.get(i);
+                    if (outcome instanceof RuntimeException e) {
+                        metrics.failed(e);
+                        results.add(new BulkBookingResult(from + i, BulkBookingResult.Status.FAILED, null, e.getMessage()));
+                    } else if (rolledBack) {
+                        results.add(new BulkBookingResult(from + i, BulkBookingResult.Status.ROLLED_BACK, null, null));
+                    } else {
+                        metrics.succeeded();
+                        results.add(new BulkBookingResult(from + i, BulkBookingResult.Status.BOOKED,
+                                (BookingResponse) outcome, null));
+                    }
+                }
+                sink.accept(results);
+            }
+        } finally {
+            metrics.record(BookingMetrics.Operation.CREATE_BULK, start);
+        }
+    }
+    
+    /**
+     * Hold seats as a PENDING booking until it is confirmed or the hold runs out
+     */
+    public BookingResponse createHold(BookingRequest request) {
+        log.info("Creating hold for event: {}", request.getEventId());
+        long start = System.nanoTime();
+        try {
+            BookingResponse response = withRetry(() -> transactionTemplate.execute(status -> doCreateHold(request)));
+            metrics.succeeded();
+            return response;
+        } catch (RuntimeException e) {
+            metrics.failed(e);
+            throw e;
+        } finally {
+            metrics.record(BookingMetrics.Operation.CREATE_HOLD, start);
+        }
+    }
+    
+    public BookingResponse confirmHold(String reference) {
+        long start = System.nanoTime();
+        try {
+            return withRetry(() -> transactionTemplate.execute(status -> doConfirmHold(reference)));
+        } finally {
+            metrics.record(BookingMetrics.Operation.CONFIRM_HOLD, start);
+        }
+    }
+    
+    private BookingResponse doCreateBooking(BookingRequest request) {
         // Find event
-        Event event = eventRepository.findById(request.getEventId())
-                .orElseThrow(() -> new RuntimeException("Event not found with ID: " + request.getEventId()));
+        Event event = findEventForBooking(request.getEventId());
         
-        // Check available seats
-        if (event.getAvailableSeats() < request.getNumberOfTickets()) {
-            throw new RuntimeException("Not enough seats available. Available: " + event.getAvailableSeats());
-        }
+        // Reserve seats
+        List<String> seatIds = takeSeats(event, request, () -> reserveSeats(event, request.getNumberOfTickets()));
         
         // Create booking
-        Booking booking = new Booking();
-        booking.setEvent(event);
-        booking.setCustomerName(request.getCustomerName());
-        booking.setCustomerEmail(request.getCustomerEmail());
-        booking.setNumberOfTickets(request.getNumberOfTickets());
-        booking.setTotalAmount(event.getTicketPrice() * request.getNumberOfTickets());
-        booking.setBookingDate(LocalDateTime.now());
-        booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        booking.setBookingReference(generateBookingReference());
+        Booking booking = newBooking(event, request, seatIds);
         
-        // Update available seats
-        event.setAvailableSeats(event.getAvailableSeats() - request.getNumberOfTickets());
-        eventRepository.save(event);
+        // Journal the booking instead of inserting it when write-behind is enabled;
+        // the drainer only picks it up once this transaction has committed
+        if (bookingJournal.isPresent()) {
+            BookingResponse response = mapToResponse(booking);
+            bookingJournal.get().append(booking, response);
+            log.info("Booking journaled successfully: {}", booking.getBookingReference());
+            return response;
+        }
         
         // Save booking
         booking = bookingRepository.save(booking);
@@ -59,44 +331,434 @@ public class BookingService {
         return mapToResponse(booking);
     }
     
-    public BookingResponse getBookingByReference(String reference) {
+    /**
+     * Holds are always inserted directly, the journal only carries confirmed bookings
+     */
+    private BookingResponse doCreateHold(BookingRequest request) {
+        Event event = findEventForBooking(request.getEventId());
+        List<String> seatIds = takeSeats(event, request,
+                () -> reserveSeats(event, request.getNumberOfTickets(), false));
+        
+        Booking booking = newBooking(event, request, seatIds);
+        booking.setStatus(Booking.BookingStatus.PENDING);
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(holdMinutes));
+        booking = bookingRepository.save(booking);
+        
+        String reference = booking.getBookingReference();
+        long holdMs = Duration.ofMinutes(holdMinutes).toMillis();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                holdExpiry.schedule(reference, holdMs);
+            }
+        });
+        
+        log.info("Hold created: {} until {}", reference, booking.getHoldExpiresAt());
+        return mapToResponse(booking);
+    }
+    
+    private BookingResponse doConfirmHold(String reference) {
         Booking booking = bookingRepository.findByBookingReference(reference)
                 .orElseThrow(() -> new RuntimeException("Booking not found with reference: " + reference));
+        if (booking.getStatus() == Booking.BookingStatus.EXPIRED
+                || booking.getStatus() == Booking.BookingStatus.PENDING
+                && booking.getHoldExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Hold has expired");
+        }
+        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+            throw new RuntimeException("Booking is not on hold");
+        }
+        
+        // A concurrent expiry fails the version check and the retry sees the new status
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setHoldExpiresAt(null);
+        booking = bookingRepository.saveAndFlush(booking);
+        
+        log.info("Hold confirmed: {}", reference);
         return mapToResponse(booking);
     }
     
-    public List<BookingResponse> getBookingsByEmail(String email) {
-        return bookingRepository.findByCustomerEmail(email)
-                .stream()
-                .map(this::mapToResponse)
+    /**
+     * Release a batch of holds handed over by the expiry wheel in one transaction.
+     * Holds confirmed or cancelled in the meantime are skipped.
+     */
+    private void expireHolds(List<String> references) {
+        List<String> early = withRetry(() -> transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> notDue = new ArrayList<>();
+            for (Booking booking : bookingRepository.findByBookingReferenceIn(references)) {
+                if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+                    continue;
+                }
+                if (booking.getHoldExpiresAt().isAfter(now)) {
+                    notDue.add(booking.getBookingReference());
+                    continue;
+                }
+                booking.setStatus(Booking.BookingStatus.EXPIRED);
+                releaseSeats(booking.getEvent(), booking.getNumberOfTickets());
+                releaseSeatMapOnCommit(booking.getEvent().getId(), List.copyOf(booking.getSeatIds()));
+            }
+            return notDue;
+        }));
+        // Wheel ticks are coarse, put holds that fired a little early back on the wheel
+        early.forEach(reference -> holdExpiry.schedule(reference, holdTickMs));
+        log.debug("Expired holds from a batch of {}", references.size());
+    }
+    
+    private Event findEventForBooking(Long eventId) {
+        return inventoryMode == InventoryMode.PESSIMISTIC
+                ? eventRepository.findByIdForUpdate(eventId)
+                        .orElseThrow(() -> new BookingFailedException(BookingMetrics.Outcome.NOT_FOUND, "Event not found with ID: " + eventId))
+                : eventRepository.findById(eventId)
+                        .orElseThrow(() -> new BookingFailedException(BookingMetrics.Outcome.NOT_FOUND, "Event not found with ID: " + eventId));
+    }
+    
+    /**
+     * Commit a coalesced group of booking requests in one transaction.
+     * Each request still gets its own response or error.
+     */
+    private void createBookingGroup(List<RequestCoalescer.Pending<BookingRequest, BookingResponse>> group) {
+        List<BookingRequest> requests = group.stream().map(RequestCoalescer.Pending::input).toList();
+        List<Object> outcomes = withRetry(() -> transactionTemplate.execute(status -> doCreateBookings(requests)));
+        for (int i = 0; i < group.size(); i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome instanceof BookingResponse response) {
+                group.get(i).future().complete(response);
+            } else {
+                group.get(i).future().completeExceptionally((RuntimeException) outcome);
+            }
+        }
+        log.debug("Committed booking group of {} requests", group.size());
+    }
+    
+    /**
+     * Returns a BookingResponse or a RuntimeException per request, in request order
+     */
+    private List<Object> doCreateBookings(List<BookingRequest> requests) {
+        Map<Long, Event> events = findEvents(requests);
+        
+        List<Object> outcomes = new ArrayList<>(requests.size());
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (BookingRequest request : requests) {
+            Event event = events.get(request.getEventId());
+            if (event == null) {
+                outcomes.add(new BookingFailedException(BookingMetrics.Outcome.NOT_FOUND, "Event not found with ID: " + request.getEventId()));
+                continue;
+            }
+            List<String> seatIds;
+            try {
+                seatIds = takeSeats(event, request, () -> reserveSeatsInGroup(event, request.getNumberOfTickets()));
+            } catch (RuntimeException e) {
+                outcomes.add(e);
+                continue;
+            }
+            Booking booking = newBooking(event, request, seatIds);
+            bookings.add(booking);
+            outcomes.add(booking);
+        }
+        
+        // Sequence ids let Hibernate send these as JDBC batches
+        bookingRepository.saveAll(bookings);
+        
+        outcomes.replaceAll(outcome -> outcome instanceof Booking booking ? mapToResponse(booking) : outcome);
+        return outcomes;
+    }
+    
+    /**
+     * Bulk variant of doCreateBookings: items are grouped by event so each event's
+     * seats are reserved in one step where possible, then all bookings are inserted
+     * in JDBC batches. Returns a BookingResponse or a RuntimeException per item.
+     */
+    private List<Object> doCreateBulk(List<BookingRequest> requests) {
+        Map<Long, Event> events = findEvents(requests);
+        Map<Long, List<Integer>> byEvent = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            byEvent.computeIfAbsent(requests.get(i).getEventId(), id -> new ArrayList<>()).add(i);
+        }
+        
+        Object[] outcomes = new Object[requests.size()];
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (Map.Entry<Long, List<Integer>> group : byEvent.entrySet()) {
+            Event event = events.get(group.getKey());
+            if (event == null) {
+                for (int i : group.getValue()) {
+                    outcomes[i] = new BookingFailedException(BookingMetrics.Outcome.NOT_FOUND, "Event not found with ID: " + group.getKey());
+                }
+                continue;
+            }
+            boolean reserved = reserveWholeGroup(event, group.getValue(), requests);
+            for (int i : group.getValue()) {
+                BookingRequest request = requests.get(i);
+                try {
+                    List<String> seatIds = reserved ? List.of()
+                            : takeSeats(event, request, () -> reserveSeatsInGroup(event, request.getNumberOfTickets()));
+                    Booking booking = newBooking(event, request, seatIds);
+                    bookings.add(booking);
+                    outcomes[i] = booking;
+                } catch (RuntimeException e) {
+                    outcomes[i] = e;
+                }
+            }
+        }
+        
+        bookingRepository.saveAll(bookings);
+        
+        return Arrays.stream(outcomes)
+                .map(outcome -> outcome instanceof Booking booking ? mapToResponse(booking) : outcome)
                 .toList();
     }
     
-    @Transactional
-    public BookingResponse cancelBooking(String reference) {
+    /**
+     * Reserve the seats of all of an event's items at once when none of them needs
+     * assigned seats. False if they do not all fit; the items are then reserved one by one.
+     */
+    private boolean reserveWholeGroup(Event event, List<Integer> indexes, List<BookingRequest> requests) {
+        if (indexes.size() < 2 || seatMap.hasSeatMap(event.getId())) {
+            return false;
+        }
+        int seats = 0;
+        for (int i : indexes) {
+            BookingRequest request = requests.get(i);
+            if (request.getSeatIds() != null && !request.getSeatIds().isEmpty()) {
+                return false;
+            }
+            seats += request.getNumberOfTickets();
+        }
+        try {
+            reserveSeatsInGroup(event, seats);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+    
+    private Map<Long, Event> findEvents(List<BookingRequest> requests) {
+        return eventRepository.findAllById(requests.stream().map(BookingRequest::getEventId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+    }
+    
+    /**
+     * Seats for a group are taken against the event entity loaded once for the
+     * whole group; its version check at flush guards against concurrent writers.
+     * Groups are always inserted directly, never journaled.
+     */
+    private void reserveSeatsInGroup(Event event, int seats) {
+        if (inventoryMode == InventoryMode.MEMORY) {
+            reserveSeats(event, seats, false);
+            return;
+        }
+        if (event.getAvailableSeats() < seats) {
+            throw new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "Not enough seats available. Available: " + event.getAvailableSeats());
+        }
+        event.setAvailableSeats(event.getAvailableSeats() - seats);
+        evictEventOnCommit(event.getId(), event.getAvailableSeats() == 0);
+    }
+    
+    private BookingResponse doCancelBooking(String reference) {
         Booking booking = bookingRepository.findByBookingReference(reference)
                 .orElseThrow(() -> new RuntimeException("Booking not found with reference: " + reference));
         
         if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
             throw new RuntimeException("Booking is already cancelled");
         }
+        if (booking.getStatus() == Booking.BookingStatus.EXPIRED) {
+            throw new RuntimeException("Hold has expired");
+        }
         
-        // Update booking status
+        // Update booking status; a concurrent cancel fails the version check and is retried
         booking.setStatus(Booking.BookingStatus.CANCELLED);
+        booking = bookingRepository.saveAndFlush(booking);
         
         // Restore available seats
-        Event event = booking.getEvent();
-        event.setAvailableSeats(event.getAvailableSeats() + booking.getNumberOfTickets());
-        eventRepository.save(event);
-        
-        booking = bookingRepository.save(booking);
+        releaseSeats(booking.getEvent(), booking.getNumberOfTickets());
+        releaseSeatMapOnCommit(booking.getEvent().getId(), List.copyOf(booking.getSeatIds()));
         
         log.info("Booking cancelled: {}", reference);
         
         return mapToResponse(booking);
     }
     
-    private BookingResponse mapToResponse(Booking booking) {
+    /**
+     * Claim assigned seats on events with a seat map, then take the seat count.
+     * If the count cannot be taken the claimed seats are given back right away;
+     * after that they are given back only if the transaction rolls back.
+     */
+    private List<String> takeSeats(Event event, BookingRequest request, Runnable reserveCount) {
+        List<String> seatIds = assignSeats(event.getId(), request);
+        try {
+            reserveCount.run();
+        } catch (RuntimeException e) {
+            seatMap.release(event.getId(), seatIds);
+            throw e;
+        }
+        if (!seatIds.isEmpty()) {
+            releaseSeatMapOnRollback(event.getId(), seatIds);
+        }
+        return seatIds;
+    }
+    
+    private List<String> assignSeats(Long eventId, BookingRequest request) {
+        List<String> requested = request.getSeatIds() != null ? request.getSeatIds() : List.of();
+        int tickets = request.getNumberOfTickets();
+        if (!seatMap.hasSeatMap(eventId)) {
+            if (!requested.isEmpty()) {
+                throw new RuntimeException("Event " + eventId + " has no assigned seating");
+            }
+            return List.of();
+        }
+        if (requested.isEmpty()) {
+            return seatMap.allocateBestAvailable(eventId, tickets)
+                    .orElseThrow(() -> new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "No " + tickets + " adjacent seats available"));
+        }
+        if (requested.size() != tickets || requested.stream().distinct().count() != tickets) {
+            throw new RuntimeException("Exactly " + tickets + " different seats must be selected");
+        }
+        return seatMap.claim(eventId, List.copyOf(requested));
+    }
+    
+    private void reserveSeats(Event event, int seats) {
+        reserveSeats(event, seats, bookingJournal.isPresent());
+    }
+    
+    private void reserveSeats(Event event, int seats, boolean journaled) {
+        switch (inventoryMode) {
+            case MEMORY -> {
+                // Journaled bookings have their seat change written by the journal drainer
+                boolean writeBack = !journaled;
+                if (!seatInventory.tryReserve(event.getId(), seats, writeBack)) {
+                    throw new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "Not enough seats available. Available: " + seatInventory.getAvailableSeats(event.getId()));
+                }
+                releaseSeatsOnRollback(event.getId(), seats, writeBack);
+            }
+            case DATABASE -> {
+                if (eventRepository.reserveSeats(event.getId(), seats) == 0) {
+                    throw new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "Not enough seats available. Available: " + eventRepository.findAvailableSeats(event.getId()));
+                }
+                // The count read with the event may be behind concurrent bookings, a missed
+                // sell-out is bounded by the shorter TTL of availability answers
+                evictEventOnCommit(event.getId(), event.getAvailableSeats() <= seats);
+            }
+            case PESSIMISTIC -> {
+                if (event.getAvailableSeats() < seats) {
+                    throw new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "Not enough seats available. Available: " + event.getAvailableSeats());
+                }
+                event.setAvailableSeats(event.getAvailableSeats() - seats);
+                evictEventOnCommit(event.getId(), event.getAvailableSeats() == 0);
+            }
+        }
+    }
+    
+    private void releaseSeats(Event event, int seats) {
+        switch (inventoryMode) {
+            case MEMORY -> releaseSeatsOnCommit(event.getId(), seats);
+            case DATABASE, PESSIMISTIC -> {
+                eventRepository.adjustAvailableSeats(event.getId(), seats);
+                evictEventOnCommit(event.getId(), event.getAvailableSeats() == 0);
+            }
+        }
+    }
+    
+    /**
+     * Re-run a booking transaction that lost a concurrent update, with jittered exponential backoff
+     */
+    private <T> T withRetry(Supplier<T> action) {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    metrics.retriesExhausted();
+                    throw new BookingFailedException(BookingMetrics.Outcome.CONFLICT, "Booking failed due to high demand, please try again", e);
+                }
+                metrics.retried();
+                log.debug("Concurrent update conflict on attempt {}, retrying in {} ms", attempt, backoff);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Booking interrupted", ie);
+                }
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+    
+    private void releaseSeatsOnRollback(Long eventId, int seats, boolean writeBack) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seatInventory.release(eventId, seats, writeBack);
+                }
+            }
+        });
+    }
+    
+    private void releaseSeatsOnCommit(Long eventId, int seats) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seatInventory.release(eventId, seats);
+            }
+        });
+    }
+    
+    private void releaseSeatMapOnRollback(Long eventId, List<String> seatIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seatMap.release(eventId, seatIds);
+                }
+            }
+        });
+    }
+    
+    private void releaseSeatMapOnCommit(Long eventId, List<String> seatIds) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seatMap.release(eventId, seatIds);
+            }
+        });
+    }
+    
+    /**
+     * Seat counts changed in the events table, drop the cached copy once they are
+     * visible, and retire cached AI answers if the event sold out or came back
+     */
+    private void evictEventOnCommit(Long eventId, boolean availabilityChanged) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventCache.evict(eventId);
+                if (availabilityChanged) {
+                    catalogVersion.bumpAvailability();
+                }
+            }
+        });
+    }
+    
+    private Booking newBooking(Event event, BookingRequest request, List<String> seatIds) {
+        Booking booking = new Booking();
+        booking.setEvent(event);
+        booking.setCustomerName(request.getCustomerName());
+        booking.setCustomerEmail(request.getCustomerEmail());
+        booking.setNumberOfTickets(request.getNumberOfTickets());
+        booking.setTotalAmount(event.getTicketPrice() * request.getNumberOfTickets());
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setBookingReference(generateBookingReference());
+        booking.setSeatIds(new ArrayList<>(seatIds));
+        return booking;
+    }
+    
+    BookingResponse mapToResponse(Booking booking) {
         BookingResponse response = new BookingResponse();
         response.setBookingId(booking.getId());
         response.setBookingReference(booking.getBookingReference());
@@ -110,10 +772,46 @@ public class BookingService {
         response.setBookingDate(booking.getBookingDate());
         response.setStatus(booking.getStatus());
         response.setMessage("Booking " + booking.getStatus().toString().toLowerCase());
+        response.setSeatIds(List.copyOf(booking.getSeatIds()));
+        response.setHoldExpiresAt(booking.getHoldExpiresAt());
         return response;
     }
     
+    private BookingResponse mapToResponse(BookingView view) {
+        return new BookingResponse(view.getBookingId(), view.getBookingReference(), view.getEventName(),
+                view.getVenue(), view.getEventDate(), view.getCustomerName(), view.getCustomerEmail(),
+                view.getNumberOfTickets(), view.getTotalAmount(), view.getBookingDate(), view.getStatus(),
+                "Booking " + view.getStatus().toString().toLowerCase(), List.of(), view.getHoldExpiresAt());
+    }
+    
+    /**
+     * Map views and fill in their assigned seats, loaded with one query per chunk of bookings
+     */
+    private List<BookingResponse> mapViews(List<BookingView> views) {
+        List<BookingResponse> responses = views.stream().map(this::mapToResponse).toList();
+        Map<Long, List<String>> seats = new HashMap<>();
+        for (int from = 0; from < views.size(); from += SEAT_LOOKUP_CHUNK) {
+            List<Long> ids = views.subList(from, Math.min(views.size(), from + SEAT_LOOKUP_CHUNK)).stream()
+                    .map(BookingView::getBookingId)
+                    .toList();
+            for (Object[] row : bookingRepository.findSeatIdsByBookingIds(ids)) {
+                seats.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+        responses.forEach(response -> response.setSeatIds(seats.getOrDefault(response.getBookingId(), List.of())));
+        return responses;
+    }
+    
     private String generateBookingReference() {
-        return "BK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return referenceGenerator.next();
+    }
+    
+    /**
+     * Mistyped references fail their check symbol and are rejected without a lookup
+     */
+    private void requirePlausible(String reference) {
+        if (!referenceGenerator.isPlausible(reference)) {
+            throw new RuntimeException("Booking not found with reference: " + reference);
+        }
     }
 }
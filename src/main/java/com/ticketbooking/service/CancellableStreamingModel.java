@@ -0,0 +1,22 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+
+import java.util.List;
+
+/**
+ * A streaming chat model whose generation can be stopped. LangChain4j's
+ * StreamingChatLanguageModel drops the handle of the HTTP call, so an abandoned
+ * stream would keep generating, and billing, until the model is done.
+ */
+public interface CancellableStreamingModel {
+    
+    /**
+     * Start generating and return without waiting; tokens, then the complete response
+     * or an error, go to the handler. Running the returned action stops the
+     * generation and closes the connection, the handler is not called after that.
+     */
+    Runnable generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler);
+}
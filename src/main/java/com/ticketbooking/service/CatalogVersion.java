@@ -0,0 +1,35 @@
+package com.ticketbooking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic stamp of the event catalog, bumped whenever an event is created,
+ * updated or deleted. Caches derived from the catalog key on it.
+ *
+ * A second stamp counts availability changes: an event selling out or getting
+ * seats back after being sold out. Ordinary seat count changes do not bump it.
+ */
+@Component
+public class CatalogVersion {
+    
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong availability = new AtomicLong();
+    
+    public long current() {
+        return version.get();
+    }
+    
+    public long bump() {
+        return version.incrementAndGet();
+    }
+    
+    public long availability() {
+        return availability.get();
+    }
+    
+    public long bumpAvailability() {
+        return availability.incrementAndGet();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chat history per conversation, kept as serialized UTF-8 JSON rather than
+ * message object graphs. Bounded by session count and total bytes, with
+ * least-recently-used conversations evicted first and idle ones swept out.
+ */
+@Component
+@Slf4j
+public class ConversationMemoryStore implements ChatMemoryStore {
+    
+    @Value("${ai.memory.max-sessions:200000}")
+    private int maxSessions;
+    
+    @Value("${ai.memory.max-bytes:268435456}")
+    private long maxBytes;
+    
+    @Value("${ai.memory.idle-ttl-minutes:30}")
+    private long idleTtlMinutes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Object, Session> sessions = new LinkedHashMap<>(1024, 0.75f, true);
+    private long bytesRetained;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        byte[] data;
+        lock.lock();
+        try {
+            Session session = sessions.get(memoryId);
+            if (session == null) {
+                return new ArrayList<>();
+            }
+            session.lastAccessNanos = System.nanoTime();
+            data = session.data;
+        } finally {
+            lock.unlock();
+        }
+        return ChatMessageDeserializer.messagesFromJson(new String(data, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Whether the conversation has any messages, without deserializing them
+     */
+    public boolean hasHistory(Object memoryId) {
+        lock.lock();
+        try {
+            return sessions.containsKey(memoryId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        byte[] data = ChatMessageSerializer.messagesToJson(messages).getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            Session previous = sessions.put(memoryId, new Session(data, System.nanoTime()));
+            bytesRetained += data.length - (previous != null ? previous.data.length : 0);
+            evictOverCapacity();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void deleteMessages(Object memoryId) {
+        lock.lock();
+        try {
+            Session removed = sessions.remove(memoryId);
+            if (removed != null) {
+                bytesRetained -= removed.data.length;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Drop conversations idle for longer than the TTL. Entries are in access
+     * order, so the sweep stops at the first conversation that is still active.
+     */
+    @Scheduled(fixedDelayString = "${ai.memory.sweep-interval-ms:60000}")
+    public void sweepIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleTtlMinutes);
+        int removed = 0;
+        lock.lock();
+        try {
+            Iterator<Session> it = sessions.values().iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (session.lastAccessNanos - cutoff > 0) {
+                    break;
+                }
+                bytesRetained -= session.data.length;
+                it.remove();
+                removed++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed > 0) {
+            expirations.add(removed);
+            log.debug("Expired {} idle conversations", removed);
+        }
+    }
+    
+    public Map<String, Long> getStats() {
+        lock.lock();
+        try {
+            return Map.of(
+                    "liveSessions", (long) sessions.size(),
+                    "bytesRetained", bytesRetained,
+                    "evictions", evictions.sum(),
+                    "expirations", expirations.sum()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void evictOverCapacity() {
+        Iterator<Session> it = sessions.values().iterator();
+        while ((sessions.size() > maxSessions || bytesRetained > maxBytes) && it.hasNext()) {
+            Session eldest = it.next();
+            bytesRetained -= eldest.data.length;
+            it.remove();
+            evictions.increment();
+        }
+    }
+    
+    private static final class Session {
+        private final byte[] data;
+        private long lastAccessNanos;
+        
+        private Session(byte[] data, long lastAccessNanos) {
+            this.data = data;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
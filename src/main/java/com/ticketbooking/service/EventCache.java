@@ -0,0 +1,413 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Read-through near cache for the event catalog.
+ *
+ * Events are held by id in a bounded LRU map with a TTL. Result sets of the list
+ * queries (all, available, per category, date windows) are kept as id lists and
+ * resolved through the id cache; results larger than max-result-size are never
+ * cached, so a big catalog is read with the same range queries as without the
+ * cache. EventService invalidates exactly the affected entries on writes.
+ *
+ * Every id stripe and result group has a generation that invalidation bumps.
+ * A load records the generation before it queries and only stores its result if
+ * the generation is unchanged, so a load that raced an invalidation cannot put
+ * the old row or list back for a whole TTL.
+ *
+ * Callers always get copies. With the in-memory seat inventory the seat count is
+ * overlaid from the live counter; otherwise BookingService evicts the event when a
+ * booking changes its seats.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventCache {
+    
+    private static final int ID_STRIPES = 64;
+    private static final int MAX_RESULT_SETS = 256;
+    private static final String ALL = "all";
+    private static final String AVAILABLE = "available";
+    private static final String CATEGORY = "category:";
+    private static final String DATES = "dates";
+    
+    private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    
+    @Value("${catalog.cache.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${catalog.cache.max-result-size:1000}")
+    private int maxResultSize;
+    
+    @Value("${catalog.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    @Value("${booking.inventory.mode:MEMORY}")
+    private BookingService.InventoryMode inventoryMode;
+    
+    // Everything below is guarded by the lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> events = new LinkedHashMap<>(256, 0.75f, true);
+    private final long[] idGenerations = new long[ID_STRIPES];
+    private final LinkedHashMap<String, IdList> results = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Long> resultGenerations = new HashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public Optional<Event> findById(Long id) {
+        Event cached = getCached(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copy(cached));
+        }
+        misses.increment();
+        long[] generations = idGenerations();
+        return eventRepository.findById(id)
+                .map(event -> put(event, generations))
+                .map(this::copy);
+    }
+    
+    public List<Event> findAll() {
+        return findList(ALL, ALL, eventRepository::findAll);
+    }
+    
+    public List<Event> findByCategory(String category) {
+        return findList(CATEGORY + category, CATEGORY + category, () -> eventRepository.findByCategory(category));
+    }
+    
+    public List<Event> findAvailable() {
+        // The live overlay can have sold out an event the stored count still shows as available
+        return findList(AVAILABLE, AVAILABLE, () -> eventRepository.findByAvailableSeatsGreaterThan(0)).stream()
+                .filter(event -> event.getAvailableSeats() > 0)
+                .toList();
+    }
+    
+    /**
+     * Events in the window, by date. The range query is widened to whole minutes
+     * and cut to the exact bounds here, so the moving window of the upcoming list
+     * is served from one cached result for a minute.
+     */
+    public List<Event> findByEventDateBetween(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime to = end.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        String key = DATES + ":" + from + "/" + to;
+        
+        IdList window = getList(key);
+        if (window != null) {
+            return resolve(window.ids().subList(window.lowerBound(start), window.upperBound(end)));
+        }
+        long generation = resultGeneration(DATES);
+        long[] generations = idGenerations();
+        List<Event> loaded = new ArrayList<>(eventRepository.findByEventDateBetween(from, to));
+        loaded.sort(Comparator.comparing(Event::getEventDate));
+        window = new IdList(
+                loaded.stream().map(Event::getId).toList(),
+                loaded.stream().map(Event::getEventDate).toArray(LocalDateTime[]::new),
+                System.nanoTime());
+        putList(key, DATES, generation, window, loaded, generations);
+        return loaded.subList(window.lowerBound(start), window.upperBound(end)).stream()
+                .map(this::copy)
+                .toList();
+    }
+    
+    public void created(Event event) {
+        invalidate(ALL, AVAILABLE, DATES, CATEGORY + event.getCategory());
+    }
+    
+    public void updated(Event event, String previousCategory, LocalDateTime previousDate) {
+        evict(event.getId());
+        if (!event.getCategory().equals(previousCategory)) {
+            invalidate(CATEGORY + previousCategory, CATEGORY + event.getCategory());
+        }
+        if (!event.getEventDate().equals(previousDate)) {
+            invalidate(DATES);
+        }
+    }
+    
+    /**
+     * A list that still holds a deleted id is harmless, resolve drops the id once
+     * the row is gone. Lists are invalidated so they do not keep asking for it.
+     */
+    public void deleted(Long eventId) {
+        Event cached = getCached(eventId);
+        evict(eventId);
+        if (cached != null) {
+            invalidate(ALL, DATES, CATEGORY + cached.getCategory());
+        } else {
+            lock.lock();
+            try {
+                List<String> categoryGroups = results.keySet().stream().filter(key -> key.startsWith(CATEGORY)).toList();
+                invalidate(ALL, DATES);
+                invalidate(categoryGroups.toArray(String[]::new));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Drop the cached row after its seat count changed in the database, together
+     * with the available list it may have joined or left
+     */
+    public void evict(Long eventId) {
+        lock.lock();
+        try {
+            events.remove(eventId);
+            idGenerations[stripe(eventId)]++;
+            invalidate(AVAILABLE);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public Map<String, Long> getStats() {
+        lock.lock();
+        try {
+            return Map.of(
+                    "hits", hits.sum(),
+                    "misses", misses.sum(),
+                    "evictions", evictions.sum(),
+                    "size", (long) events.size(),
+                    "resultSets", (long) results.size()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Resolve ids through the id cache, loading all misses in one query
+     */
+    private List<Event> resolve(List<Long> ids) {
+        Map<Long, Event> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Event cached = getCached(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        hits.add(found.size());
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            long[] generations = idGenerations();
+            for (Event event : eventRepository.findAllById(missing)) {
+                found.put(event.getId(), put(event, generations));
+            }
+        }
+        List<Event> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Event event = found.get(id);
+            if (event != null) {
+                result.add(copy(event));
+            }
+        }
+        return result;
+    }
+    
+    private Event getCached(Long id) {
+        lock.lock();
+        try {
+            Entry entry = events.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAtNanos() > ttlNanos()) {
+                events.remove(id);
+                return null;
+            }
+            return entry.event();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Cache the row unless its id stripe was invalidated after the load began
+     */
+    private Event put(Event event, long[] generationsBeforeLoad) {
+        lock.lock();
+        try {
+            int stripe = stripe(event.getId());
+            if (idGenerations[stripe] == generationsBeforeLoad[stripe]) {
+                events.put(event.getId(), new Entry(event, System.nanoTime()));
+                while (events.size() > maxEntries) {
+                    events.remove(events.keySet().iterator().next());
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return event;
+    }
+    
+    private List<Event> findList(String key, String group, Supplier<List<Event>> query) {
+        IdList cached = getList(key);
+        if (cached != null) {
+            return resolve(cached.ids());
+        }
+        long generation = resultGeneration(group);
+        long[] generations = idGenerations();
+        List<Event> loaded = query.get();
+        putList(key, group, generation, new IdList(loaded.stream().map(Event::getId).toList(), null, System.nanoTime()),
+                loaded, generations);
+        return loaded.stream().map(this::copy).toList();
+    }
+    
+    private IdList getList(String key) {
+        lock.lock();
+        try {
+            IdList list = results.get(key);
+            if (list != null && list.isExpired(ttlNanos())) {
+                results.remove(key);
+                return null;
+            }
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Cache a loaded result and its rows, unless the result is too big to resolve
+     * through the id cache or its group was invalidated after the load began
+     */
+    private void putList(String key, String group, long generationBeforeLoad, IdList list,
+                         List<Event> loaded, long[] generationsBeforeLoad) {
+        if (loaded.size() > maxResultSize) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (resultGenerations.getOrDefault(group, 0L) != generationBeforeLoad) {
+                return;
+            }
+            results.put(key, list);
+            while (results.size() > MAX_RESULT_SETS) {
+                results.remove(results.keySet().iterator().next());
+            }
+            loaded.forEach(event -> put(event, generationsBeforeLoad));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void invalidate(String... groups) {
+        lock.lock();
+        try {
+            for (String group : groups) {
+                resultGenerations.merge(group, 1L, Long::sum);
+                results.keySet().removeIf(key -> key.equals(group) || key.startsWith(group + ":"));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long resultGeneration(String group) {
+        lock.lock();
+        try {
+            return resultGenerations.getOrDefault(group, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long[] idGenerations() {
+        lock.lock();
+        try {
+            return idGenerations.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (ID_STRIPES - 1);
+    }
+    
+    /**
+     * Seat count to show for an event read from the database or the cache
+     */
+    public int liveAvailableSeats(Long eventId, int storedSeats) {
+        return inventoryMode == BookingService.InventoryMode.MEMORY
+                ? seatInventory.getAvailableSeats(eventId)
+                : storedSeats;
+    }
+    
+    private Event copy(Event event) {
+        return new Event(event.getId(), event.getName(), event.getVenue(), event.getEventDate(),
+                event.getTicketPrice(), liveAvailableSeats(event.getId(), event.getAvailableSeats()),
+                event.getTotalSeats(), event.getDescription(), event.getCategory(), event.getVersion());
+    }
+    
+    private long ttlNanos() {
+        return TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+    
+    private record Entry(Event event, long loadedAtNanos) {
+    }
+    
+    /**
+     * Ids of one result; for date windows also their dates, in ascending order
+     */
+    private record IdList(List<Long> ids, LocalDateTime[] dates, long loadedAtNanos) {
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAtNanos > ttlNanos;
+        }
+        
+        /** First position with a date at or after start */
+        int lowerBound(LocalDateTime start) {
+            int low = 0;
+            int high = dates.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (dates[mid].isBefore(start)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        /** First position with a date after end */
+        int upperBound(LocalDateTime end) {
+            int low = 0;
+            int high = dates.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (!dates[mid].isAfter(end)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over event names and venues for substring search.
+ * A query is answered from the shortest posting list among its trigrams and
+ * each candidate is verified against the indexed text, so the events table is
+ * only read for the matching rows.
+ *
+ * Changes are applied incrementally by EventService. Postings of removed or
+ * renamed events are left in place and skipped by the verification step until
+ * enough of them pile up to rebuild the postings from the live documents.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventSearchIndex {
+    
+    private final EventRepository eventRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex venues = new TrigramIndex();
+    private volatile boolean ready;
+    
+    /**
+     * Build the index from the database once the application is up.
+     * Until then searches return empty and callers fall back to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> rows = eventRepository.findAllNamesAndVenues();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                names.put(id, (String) row[1]);
+                venues.put(id, (String) row[2]);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built for {} events", rows.size());
+    }
+    
+    public void index(Event event) {
+        lock.writeLock().lock();
+        try {
+            names.put(event.getId(), event.getName());
+            venues.put(event.getId(), event.getVenue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long eventId) {
+        lock.writeLock().lock();
+        try {
+            names.remove(eventId);
+            venues.remove(eventId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Ids of events whose name contains the text, ignoring case
+     */
+    public Optional<List<Long>> searchNames(String text) {
+        return search(names, text);
+    }
+    
+    /**
+     * Ids of events whose venue contains the text, ignoring case
+     */
+    public Optional<List<Long>> searchVenues(String text) {
+        return search(venues, text);
+    }
+    
+    private Optional<List<Long>> search(TrigramIndex field, String text) {
+        if (!ready || text == null) {
+            return Optional.empty();
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return Optional.of(field.search(query));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+    
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(trigram(text, i));
+        }
+        return trigrams;
+    }
+    
+    /**
+     * Lower-cased documents for one field plus trigram posting lists.
+     * Not thread-safe, guarded by the enclosing read/write lock.
+     */
+    private static final class TrigramIndex {
+        
+        private static final int MIN_STALE_FOR_REBUILD = 10_000;
+        
+        private final Map<Long, String> documents = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private long livePostings;
+        private long stalePostings;
+        
+        void put(Long id, String value) {
+            String text = value != null ? value.toLowerCase(Locale.ROOT) : "";
+            String previous = documents.put(id, text);
+            if (text.equals(previous)) {
+                return;
+            }
+            Set<Long> before = previous != null ? trigrams(previous) : Set.of();
+            Set<Long> after = trigrams(text);
+            for (Long trigram : after) {
+                if (!before.contains(trigram)) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+                    livePostings++;
+                }
+            }
+            for (Long trigram : before) {
+                if (!after.contains(trigram)) {
+                    livePostings--;
+                    stalePostings++;
+                }
+            }
+            rebuildIfStale();
+        }
+        
+        void remove(Long id) {
+            String previous = documents.remove(id);
+            if (previous != null) {
+                int count = trigrams(previous).size();
+                livePostings -= count;
+                stalePostings += count;
+                rebuildIfStale();
+            }
+        }
+        
+        List<Long> search(String query) {
+            List<Long> ids = new ArrayList<>();
+            if (query.length() < 3) {
+                // Too short for a trigram, scan the documents in memory instead
+                for (Map.Entry<Long, String> entry : documents.entrySet()) {
+                    if (entry.getValue().contains(query)) {
+                        ids.add(entry.getKey());
+                    }
+                }
+                return ids;
+            }
+            Postings shortest = null;
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                Postings candidate = postings.get(trigram(query, i));
+                if (candidate == null) {
+                    return ids;
+                }
+                if (shortest == null || candidate.size < shortest.size) {
+                    shortest = candidate;
+                }
+            }
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i < shortest.size; i++) {
+                Long id = shortest.ids[i];
+                String text = documents.get(id);
+                if (text != null && text.contains(query) && seen.add(id)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        
+        private void rebuildIfStale() {
+            if (stalePostings < MIN_STALE_FOR_REBUILD || stalePostings < livePostings) {
+                return;
+            }
+            postings.clear();
+            livePostings = 0;
+            for (Map.Entry<Long, String> entry : documents.entrySet()) {
+                for (Long trigram : trigrams(entry.getValue())) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(entry.getKey());
+                    livePostings++;
+                }
+            }
+            stalePostings = 0;
+        }
+    }
+    
+    /**
+     * Growable array of event ids, avoids boxing every entry of a posting list
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+        
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1));
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -1,70 +1,148 @@
 package com.ticketbooking.service;
 
+import com.ticketbooking.dto.CursorPage;
+import com.ticketbooking.dto.EventSummary;
 import com.ticketbooking.entity.Event;
 import com.ticketbooking.repository.EventRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "event.service", description = "EventService method latency", histogram = true)
 public class EventService {
     
     private final EventRepository eventRepository;
+    private final SeatInventory seatInventory;
+    private final CatalogVersion catalogVersion;
+    private final PromptContextBuilder promptContextBuilder;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventCache eventCache;
+    private final SeatMap seatMap;
+    
+    @Value("${api.pagination.max-size:100}")
+    private int maxPageSize;
     
     public Event createEvent(Event event) {
         event.setAvailableSeats(event.getTotalSeats());
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        seatInventory.register(saved);
+        eventSearchIndex.index(saved);
+        eventCache.created(saved);
+        catalogVersion.bump();
+        return saved;
     }
     
     public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+        return eventCache.findAll();
+    }
+    
+    /**
+     * Page through the catalog in id order without loading descriptions
+     */
+    public CursorPage<EventSummary> getEventsPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<EventSummary> rows = eventRepository.findSummariesAfter(
+                CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return withLiveSeats(CursorPage.of(rows, pageSize, EventSummary::getId));
+    }
+    
+    public CursorPage<EventSummary> getAvailableEventsPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<EventSummary> rows = eventRepository.findAvailableSummariesAfter(
+                CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return withLiveSeats(CursorPage.of(rows, pageSize, EventSummary::getId));
     }
     
     public Event getEventById(Long id) {
-        return eventRepository.findById(id)
+        return eventCache.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with ID: " + id));
     }
     
     public List<Event> searchEventsByName(String name) {
-        return eventRepository.findByNameContainingIgnoreCase(name);
+        return eventSearchIndex.searchNames(name)
+                .map(this::findAllInOrder)
+                .orElseGet(() -> eventRepository.findByNameContainingIgnoreCase(name));
     }
     
     public List<Event> getEventsByCategory(String category) {
-        return eventRepository.findByCategory(category.toUpperCase());
+        return eventCache.findByCategory(category.toUpperCase());
     }
     
     public List<Event> searchEventsByVenue(String venue) {
-        return eventRepository.findByVenueContainingIgnoreCase(venue);
+        return eventSearchIndex.searchVenues(venue)
+                .map(this::findAllInOrder)
+                .orElseGet(() -> eventRepository.findByVenueContainingIgnoreCase(venue));
     }
     
     public List<Event> getUpcomingEvents() {
-        return eventRepository.findByEventDateBetween(
+        return eventCache.findByEventDateBetween(
                 LocalDateTime.now(),
                 LocalDateTime.now().plusMonths(3)
         );
     }
     
     public List<Event> getAvailableEvents() {
-        return eventRepository.findByAvailableSeatsGreaterThan(0);
+        return eventCache.findAvailable();
     }
     
     public Event updateEvent(Long id, Event eventDetails) {
-        Event event = getEventById(id);
+        // Read the managed row, cached copies may carry an outdated version
+        Event event = eventRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Event not found with ID: " + id));
+        String previousCategory = event.getCategory();
+        LocalDateTime previousDate = event.getEventDate();
         event.setName(eventDetails.getName());
         event.setVenue(eventDetails.getVenue());
         event.setEventDate(eventDetails.getEventDate());
         event.setTicketPrice(eventDetails.getTicketPrice());
         event.setDescription(eventDetails.getDescription());
         event.setCategory(eventDetails.getCategory());
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        eventSearchIndex.index(saved);
+        eventCache.updated(saved, previousCategory, previousDate);
+        catalogVersion.bump();
+        return saved;
     }
     
     public void deleteEvent(Long id) {
+        seatMap.remove(id);
         eventRepository.deleteById(id);
+        seatInventory.remove(id);
+        promptContextBuilder.evict(id);
+        eventSearchIndex.remove(id);
+        eventCache.deleted(id);
+        catalogVersion.bump();
+    }
+    
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+    
+    private CursorPage<EventSummary> withLiveSeats(CursorPage<EventSummary> page) {
+        page.getItems().forEach(summary -> summary.setAvailableSeats(
+                eventCache.liveAvailableSeats(summary.getId(), summary.getAvailableSeats())));
+        return page;
+    }
+    
+    /**
+     * Load events matched by the search index, ordered by id like the table scan
+     */
+    private List<Event> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Event> events = eventRepository.findAllById(ids);
+        events.sort(Comparator.comparing(Event::getId));
+        return events;
     }
 }
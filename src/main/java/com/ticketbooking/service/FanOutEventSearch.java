@@ -0,0 +1,195 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Search for chat queries without a clear intent. Instead of handing the whole
+ * available catalog to the prompt, the name, venue, category and upcoming-date
+ * strategies run in parallel on the search executor and their hits are merged
+ * into one deduplicated list, ranked by how many strategies and query terms
+ * matched each event and cut to the top K. The upcoming-date strategy only runs
+ * for queries that mention a time frame, otherwise every upcoming event would be
+ * a hit and fill the list with unrelated events.
+ *
+ * A strategy that does not answer within its timeout contributes nothing and is
+ * cancelled, so a slow database fallback can neither hold up the chat response
+ * nor keep a search executor thread busy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FanOutEventSearch {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "any", "what", "which", "where", "when", "who", "how", "with",
+            "there", "this", "that", "these", "those", "some", "show", "find", "want", "looking", "like",
+            "event", "events", "ticket", "tickets", "book", "booking", "seat", "seats", "available",
+            "can", "you", "get", "have", "has", "about", "please", "near", "from", "into", "give", "tell");
+    
+    private static final int MAX_TERMS = 6;
+    
+    private final EventService eventService;
+    private final SearchIntentRouter intentRouter;
+    private final ExecutorService searchExecutor;
+    
+    @Value("${ai.fanout.strategy-timeout-ms:300}")
+    private long strategyTimeoutMs;
+    
+    @Value("${ai.fanout.top-k:20}")
+    private int topK;
+    
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder strategyTimeouts = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    
+    private enum Strategy {
+        NAME(3), VENUE(2), CATEGORY(2), DATE(1);
+        
+        private final int weight;
+        
+        Strategy(int weight) {
+            this.weight = weight;
+        }
+    }
+    
+    /**
+     * Top K available events for the query, best match first
+     */
+    public List<Event> search(String query) {
+        long start = System.nanoTime();
+        List<String> terms = terms(query);
+        List<String> categories = intentRouter.categoriesIn(query);
+        
+        Map<Strategy, CompletableFuture<List<List<Event>>>> running = new HashMap<>();
+        running.put(Strategy.NAME, submit(terms, eventService::searchEventsByName));
+        running.put(Strategy.VENUE, submit(terms, eventService::searchEventsByVenue));
+        running.put(Strategy.CATEGORY, submit(categories, eventService::getEventsByCategory));
+        if (intentRouter.mentionsDate(query)) {
+            running.put(Strategy.DATE, submit(List.of(""), ignored -> eventService.getUpcomingEvents()));
+        }
+        CompletableFuture.allOf(running.values().toArray(CompletableFuture[]::new)).join();
+        
+        Map<Long, Ranked> merged = new HashMap<>();
+        running.forEach((strategy, future) -> {
+            for (List<Event> hits : future.join()) {
+                for (Event event : hits) {
+                    merged.computeIfAbsent(event.getId(), id -> new Ranked(event)).add(strategy);
+                }
+            }
+        });
+        List<Event> ranked = merged.values().stream()
+                .filter(candidate -> candidate.event.getAvailableSeats() > 0)
+                .sorted(Comparator.comparingInt((Ranked candidate) -> candidate.score).reversed()
+                        .thenComparing(candidate -> candidate.event.getEventDate()))
+                .limit(topK)
+                .map(candidate -> candidate.event)
+                .toList();
+        
+        searches.increment();
+        searchNanos.add(System.nanoTime() - start);
+        log.debug("Fan-out search for terms {} and categories {} merged {} events", terms, categories, merged.size());
+        return ranked;
+    }
+    
+    public Map<String, Object> getStats() {
+        long count = searches.sum();
+        return Map.of(
+                "searches", count,
+                "strategyTimeouts", strategyTimeouts.sum(),
+                "avgMillis", count == 0 ? 0.0 : searchNanos.sum() / 1_000_000.0 / count
+        );
+    }
+    
+    /**
+     * Run one strategy over all inputs as a single task, empty if it times out or fails
+     */
+    private CompletableFuture<List<List<Event>>> submit(List<String> inputs, Function<String, List<Event>> lookup) {
+        if (inputs.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        CompletableFuture<List<List<Event>>> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = searchExecutor.submit(() -> {
+                try {
+                    List<List<Event>> hits = new ArrayList<>(inputs.size());
+                    for (String input : inputs) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        hits.add(lookup.apply(input));
+                    }
+                    result.complete(hits);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Search executor is saturated, skipping a fan-out strategy");
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<List<Event>> timedOut = new ArrayList<>();
+        return result
+                .exceptionally(e -> {
+                    log.warn("Fan-out search strategy failed", e);
+                    return List.of();
+                })
+                .completeOnTimeout(timedOut, strategyTimeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(hits -> {
+                    if (hits == timedOut) {
+                        strategyTimeouts.increment();
+                        // Nobody reads the result any more, free the executor thread
+                        task.cancel(true);
+                    }
+                    return hits;
+                });
+    }
+    
+    private static List<String> terms(String query) {
+        if (query == null) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        Arrays.stream(query.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").split("\\s+"))
+                .filter(word -> word.length() >= 3 && !STOP_WORDS.contains(word))
+                .forEach(terms::add);
+        return terms.stream().limit(MAX_TERMS).toList();
+    }
+    
+    /**
+     * An event's merged score: strategy weight for every term it matched
+     */
+    private static final class Ranked {
+        private final Event event;
+        private int score;
+        
+        private Ranked(Event event) {
+            this.event = event;
+        }
+        
+        void add(Strategy strategy) {
+            score += strategy.weight;
+        }
+    }
+}
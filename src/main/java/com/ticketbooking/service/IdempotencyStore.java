@@ -0,0 +1,211 @@
+package com.ticketbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.entity.IdempotencyRecord;
+import com.ticketbooking.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates booking writes by the client's Idempotency-Key.
+ *
+ * The first request with a key runs the write; concurrent requests with the same
+ * key wait on its future instead of running it again, and later retries get the
+ * stored response. Recent keys live in memory, bounded by count and TTL, and every
+ * completed response is also written to the idempotency_records table so retries
+ * are still recognised after the entry has left memory.
+ *
+ * Failed writes are not remembered, retrying them runs the write again. A key
+ * reused with a different request body is rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${booking.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+    
+    @Value("${booking.idempotency.max-entries:100000}")
+    private int maxEntries;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Keys in insertion order, which is also expiry order
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+    
+    public enum Operation {
+        CREATE_BOOKING, CANCEL_BOOKING
+    }
+    
+    /**
+     * Stored response for a key whose write has already completed, if any
+     */
+    public Optional<BookingResponse> findCompleted(Operation operation, String key, Object request) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        String id = id(operation, key);
+        String hash = hash(request);
+        Entry entry = entries.get(id);
+        if (entry != null && entry.future().isDone() && !entry.future().isCompletedExceptionally()) {
+            checkSameRequest(entry.requestHash(), hash);
+            return Optional.of(entry.future().join());
+        }
+        return load(id, hash);
+    }
+    
+    /**
+     * Run the write once per key and hand every caller with that key the same response
+     */
+    public BookingResponse execute(Operation operation, String key, Object request, Supplier<BookingResponse> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String id = id(operation, key);
+        String hash = hash(request);
+        Entry entry = new Entry(new CompletableFuture<>(), hash, System.nanoTime());
+        Entry existing = entries.putIfAbsent(id, entry);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), hash);
+            return await(existing);
+        }
+        insertionOrder.add(id);
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+        
+        BookingResponse response;
+        try {
+            response = load(id, hash).orElse(null);
+            if (response == null) {
+                response = action.get();
+                save(id, hash, response);
+            }
+        } catch (RuntimeException e) {
+            entries.remove(id, entry);
+            entry.future().completeExceptionally(e);
+            throw e;
+        }
+        entry.future().complete(response);
+        return response;
+    }
+    
+    @Scheduled(fixedDelayString = "${booking.idempotency.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        trim();
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(ttlMinutes));
+        if (deleted > 0) {
+            log.debug("Removed {} expired idempotency records", deleted);
+        }
+    }
+    
+    /**
+     * Drop entries from the oldest end while they are expired or the map is over its bound.
+     * Writes still in flight stop the trim, their waiters need the entry.
+     */
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(ttlMinutes);
+            String id;
+            while ((id = insertionOrder.peek()) != null) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    boolean expired = entry.createdNanos() - cutoff < 0;
+                    if (!expired && entries.size() <= maxEntries || !entry.future().isDone()) {
+                        break;
+                    }
+                    entries.remove(id, entry);
+                }
+                insertionOrder.poll();
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+    
+    private BookingResponse await(Entry entry) {
+        try {
+            return entry.future().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private Optional<BookingResponse> load(String id, String hash) {
+        return repository.findById(id).map(record -> {
+            checkSameRequest(record.getRequestHash(), hash);
+            try {
+                return objectMapper.readValue(record.getResponse(), BookingResponse.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Stored response for idempotency key is unreadable", e);
+            }
+        });
+    }
+    
+    private void save(String id, String hash, BookingResponse response) {
+        // The write has already happened, a lost record only costs dedup after this entry leaves memory
+        try {
+            repository.save(new IdempotencyRecord(id, hash, objectMapper.writeValueAsString(response), LocalDateTime.now()));
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Could not store response for idempotency key {}", id, e);
+        }
+    }
+    
+    private static void checkSameRequest(String storedHash, String hash) {
+        if (!storedHash.equals(hash)) {
+            throw new RuntimeException("Idempotency-Key was already used for a different request");
+        }
+    }
+    
+    private static String id(Operation operation, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return operation + ":" + key;
+    }
+    
+    private static String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private record Entry(CompletableFuture<BookingResponse> future, String requestHash, long createdNanos) {
+    }
+}
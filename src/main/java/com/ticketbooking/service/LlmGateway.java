@@ -0,0 +1,491 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sits between the assistants and the real chat model.
+ *
+ * Calls are queued (bounded) and dispatched on the gateway's own pool while fewer than
+ * maxInFlight are running and the token bucket, sized to the provider's request
+ * quota, has a permit. A call with exactly the same messages as one already queued
+ * or running shares its future instead of going to the provider again.
+ *
+ * A circuit breaker opens after consecutive provider failures or timeouts and fails
+ * calls immediately with LlmUnavailableException until the open period is over,
+ * then lets a single probe through. Callers are expected to degrade to a non-AI
+ * answer on that exception.
+ *
+ * The synchronous generate() waits on the same future, bounded by the call timeout.
+ * A call that timed out is interrupted but keeps its in-flight slot until the
+ * delegate actually returns.
+ *
+ * Streamed answers go through the same queue, rate limit and circuit breaker and hold
+ * an in-flight slot until the stream ends. The call timeout bounds only their wait in
+ * the queue; a started stream runs until it completes, fails or is cancelled, and
+ * cancelling it stops the generation at the provider.
+ */
+@Slf4j
+public class LlmGateway implements ChatLanguageModel {
+    
+    private final ChatLanguageModel delegate;
+    private final CancellableStreamingModel streamingDelegate;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final long timeoutMs;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final TokenBucket rateLimiter;
+    
+    private final Map<List<ChatMessage>, CompletableFuture<Response<AiMessage>>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Call> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // The half-open probe's future, released whenever it completes, whichever way
+    private final AtomicReference<CompletableFuture<Response<AiMessage>>> probe = new AtomicReference<>();
+    private volatile long openedAtNanos;
+    
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder streamsCancelled = new LongAdder();
+    
+    public LlmGateway(ChatLanguageModel delegate, CancellableStreamingModel streamingDelegate, int maxInFlight, int maxQueued, int requestsPerMinute,
+                      int burst, long timeoutMs, int failureThreshold, long openMs) {
+        this.delegate = delegate;
+        this.streamingDelegate = streamingDelegate;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.timeoutMs = timeoutMs;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.rateLimiter = new TokenBucket(requestsPerMinute / 60.0, burst);
+        // Never more than maxInFlight calls are started, so the pool does not queue them
+        // behind callers that are themselves waiting on the gateway
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "llm-gateway-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "llm-gateway-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Queue a model call; the future fails with LlmUnavailableException when the
+     * model cannot answer in time
+     */
+    public CompletableFuture<Response<AiMessage>> submit(List<ChatMessage> messages) {
+        submitted.increment();
+        List<ChatMessage> key = List.copyOf(messages);
+        CompletableFuture<Response<AiMessage>> existing = inFlight.get(key);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        CompletableFuture<Response<AiMessage>> future = new CompletableFuture<>();
+        if (!allowRequest(future)) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(new LlmUnavailableException("AI assistant is temporarily unavailable"));
+        }
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            probe.compareAndSet(future, null);
+            return existing;
+        }
+        future.whenComplete((response, error) -> {
+            inFlight.remove(key, future);
+            // Also covers a probe that timed out in the queue or was never started
+            probe.compareAndSet(future, null);
+        });
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            future.completeExceptionally(new LlmUnavailableException("AI assistant is overloaded"));
+            return future;
+        }
+        // Covers the wait in the queue as well as the call itself
+        future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        queue.addLast(new Call(future, () -> start(key, future)));
+        dispatch();
+        return future;
+    }
+    
+    /**
+     * Queue a streamed model call. The handler gets the tokens and then the response,
+     * or an LlmUnavailableException; cancelling the returned handle, queued or
+     * started, stops the call without calling the handler again.
+     */
+    public StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        submitted.increment();
+        StreamHandle handle = new StreamHandle();
+        if (!allowRequest(handle.done)) {
+            shortCircuited.increment();
+            failStream(handle, handler, new LlmUnavailableException("AI assistant is temporarily unavailable"));
+            return handle;
+        }
+        handle.done.whenComplete((response, error) -> probe.compareAndSet(handle.done, null));
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            failStream(handle, handler, new LlmUnavailableException("AI assistant is overloaded"));
+            return handle;
+        }
+        handle.admitted.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((started, error) -> {
+            if (error != null) {
+                failStream(handle, handler, error);
+            }
+        });
+        queue.addLast(new Call(handle.admitted, () -> startStream(List.copyOf(messages), handle, handler)));
+        dispatch();
+        return handle;
+    }
+    
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        try {
+            return submit(messages).join();
+        } catch (CompletionException e) {
+            throw unavailable(e.getCause());
+        }
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+    
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "submitted", submitted.sum(),
+                "coalesced", coalesced.sum(),
+                "rejected", rejected.sum(),
+                "shortCircuited", shortCircuited.sum(),
+                "failures", failures.sum(),
+                "streamsCancelled", streamsCancelled.sum(),
+                "queued", queued.get(),
+                "running", running.get(),
+                "circuit", circuitState()
+        );
+    }
+    
+    /**
+     * Start queued calls while there is room in the window and a rate permit
+     */
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            long waitNanos = rateLimiter.tryTake();
+            if (waitNanos > 0) {
+                running.decrementAndGet();
+                scheduleDispatch(waitNanos);
+                return;
+            }
+            Call call = queue.pollFirst();
+            if (call == null) {
+                running.decrementAndGet();
+                rateLimiter.refund();
+                return;
+            }
+            queued.decrementAndGet();
+            if (call.future().isDone()) {
+                // Timed out while queued, nobody is waiting for the answer
+                running.decrementAndGet();
+                rateLimiter.refund();
+                continue;
+            }
+            call.start().run();
+        }
+    }
+    
+    /**
+     * The in-flight slot is held until the delegate returns, not until the caller stops
+     * waiting: a timed-out call is interrupted, but keeps its pool thread until the
+     * provider client gives up. Releasing the slot earlier would let the dispatcher
+     * start calls that have no free thread to run on.
+     */
+    private void start(List<ChatMessage> messages, CompletableFuture<Response<AiMessage>> future) {
+        CompletableFuture<Response<AiMessage>> attempt = new CompletableFuture<>();
+        // Claimed by the task when it starts, or by a cancellation that came first
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    attempt.complete(delegate.generate(messages));
+                } catch (RuntimeException e) {
+                    attempt.completeExceptionally(e);
+                } finally {
+                    running.decrementAndGet();
+                    dispatch();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            future.completeExceptionally(new LlmUnavailableException("AI assistant is overloaded", e));
+            return;
+        }
+        Runnable cancel = () -> {
+            task.cancel(true);
+            if (claimed.compareAndSet(false, true)) {
+                running.decrementAndGet();
+                dispatch();
+            }
+        };
+        attempt.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            if (error == null) {
+                onSuccess();
+                future.complete(response);
+            } else {
+                cancel.run();
+                onFailure(future, error);
+                future.completeExceptionally(unavailable(error));
+            }
+        });
+        // Nobody waits for the answer once the caller's own timeout fired
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                cancel.run();
+            }
+        });
+    }
+    
+    /**
+     * The stream keeps its in-flight slot until it completes, fails or is cancelled
+     */
+    private void startStream(List<ChatMessage> messages, StreamHandle handle, StreamingResponseHandler<AiMessage> handler) {
+        if (!handle.admitted.complete(null)) {
+            // Timed out or cancelled between the dispatcher's check and here
+            running.decrementAndGet();
+            rateLimiter.refund();
+            return;
+        }
+        handle.done.whenComplete((response, error) -> {
+            running.decrementAndGet();
+            dispatch();
+        });
+        if (handle.done.isDone()) {
+            return;
+        }
+        Runnable cancel;
+        try {
+            cancel = streamingDelegate.generate(messages, new StreamingResponseHandler<>() {
+                @Override
+                public void onNext(String token) {
+                    if (!handle.done.isDone()) {
+                        handler.onNext(token);
+                    }
+                }
+                
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    if (handle.done.complete(response)) {
+                        onSuccess();
+                        handler.onComplete(response);
+                    }
+                }
+                
+                @Override
+                public void onError(Throwable error) {
+                    if (handle.done.completeExceptionally(error)) {
+                        onFailure(handle.done, error);
+                        handler.onError(unavailable(error));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            if (handle.done.completeExceptionally(e)) {
+                onFailure(handle.done, e);
+                handler.onError(unavailable(e));
+            }
+            return;
+        }
+        handle.started(cancel);
+    }
+    
+    private static void failStream(StreamHandle handle, StreamingResponseHandler<AiMessage> handler, Throwable error) {
+        if (handle.done.completeExceptionally(error)) {
+            handler.onError(unavailable(error));
+        }
+    }
+    
+    private void scheduleDispatch(long delayNanos) {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                dispatchScheduled.set(false);
+                dispatch();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Closed below the failure threshold; open for the open period after that;
+     * then half-open with one probe at a time
+     */
+    private boolean allowRequest(CompletableFuture<Response<AiMessage>> future) {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return true;
+        }
+        if (System.nanoTime() - openedAtNanos < openNanos) {
+            return false;
+        }
+        return probe.compareAndSet(null, future);
+    }
+    
+    private void onSuccess() {
+        if (consecutiveFailures.getAndSet(0) >= failureThreshold) {
+            log.info("LLM circuit closed");
+        }
+    }
+    
+    private void onFailure(CompletableFuture<Response<AiMessage>> future, Throwable error) {
+        failures.increment();
+        int failed = consecutiveFailures.incrementAndGet();
+        if (failed >= failureThreshold) {
+            openedAtNanos = System.nanoTime();
+            if (failed == failureThreshold || probe.get() == future) {
+                log.warn("LLM circuit open after {} consecutive failures: {}", failed, error.toString());
+            }
+        }
+    }
+    
+    private String circuitState() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return "CLOSED";
+        }
+        return System.nanoTime() - openedAtNanos < openNanos ? "OPEN" : "HALF_OPEN";
+    }
+    
+    private static RuntimeException unavailable(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof LlmUnavailableException e) {
+            return e;
+        }
+        if (cause instanceof TimeoutException) {
+            return new LlmUnavailableException("AI assistant timed out", cause);
+        }
+        return new LlmUnavailableException("AI assistant failed: " + cause.getMessage(), cause);
+    }
+    
+    /**
+     * A queued call: skipped by the dispatcher once its future is done
+     */
+    private record Call(CompletableFuture<?> future, Runnable start) {
+    }
+    
+    /**
+     * Cancels a streamed call, whether it is still queued or already generating
+     */
+    public final class StreamHandle {
+        private final CompletableFuture<Void> admitted = new CompletableFuture<>();
+        private final CompletableFuture<Response<AiMessage>> done = new CompletableFuture<>();
+        private volatile boolean cancelled;
+        private volatile Runnable cancelUpstream;
+        
+        private StreamHandle() {
+        }
+        
+        public void cancel() {
+            if (!done.completeExceptionally(new CancellationException("Stream cancelled"))) {
+                return;
+            }
+            streamsCancelled.increment();
+            cancelled = true;
+            admitted.cancel(false);
+            Runnable cancel = cancelUpstream;
+            if (cancel != null) {
+                cancel.run();
+            }
+        }
+        
+        public boolean isDone() {
+            return done.isDone();
+        }
+        
+        private void started(Runnable cancel) {
+            cancelUpstream = cancel;
+            // Cancelled while the provider call was being set up
+            if (cancelled) {
+                cancel.run();
+            }
+        }
+    }
+    
+    /**
+     * Refills continuously at the quota rate up to the burst size
+     */
+    private static final class TokenBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double permits;
+        private long refilledAtNanos = System.nanoTime();
+        
+        TokenBucket(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.permits = capacity;
+        }
+        
+        /**
+         * Take a permit and return 0, or return the nanos until one is available
+         */
+        synchronized long tryTake() {
+            long now = System.nanoTime();
+            permits = Math.min(capacity, permits + (now - refilledAtNanos) * permitsPerNano);
+            refilledAtNanos = now;
+            if (permits >= 1) {
+                permits -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - permits) / permitsPerNano));
+        }
+        
+        synchronized void refund() {
+            permits = Math.min(capacity, permits + 1);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ticketbooking.service;
+
+/**
+ * The LLM gateway could not get an answer from the model: circuit open, overloaded,
+ * timed out or the provider failed. Callers answer without the model instead.
+ */
+public class LlmUnavailableException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+    
+    public LlmUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
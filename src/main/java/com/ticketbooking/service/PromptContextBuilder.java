@@ -0,0 +1,159 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the event list that goes into LLM prompts.
+ * Events are ranked by how well they match the user's words, rendered in a
+ * compact pipe-separated line cached per event version, and cut off once the
+ * configured token budget is reached.
+ */
+@Component
+@Slf4j
+public class PromptContextBuilder {
+    
+    private static final String HEADER = "id|name|venue|date|category|price|seats\n";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Set<String> IGNORED_TERMS = Set.of(
+            "the", "and", "for", "with", "like", "love", "want", "some", "any", "show", "find", "events", "event",
+            "tickets", "ticket", "please", "what", "are", "there", "near", "good", "best"
+    );
+    
+    @Value("${ai.prompt.token-budget:2000}")
+    private int tokenBudget;
+    
+    private final Map<Long, CompactEvent> cache = new ConcurrentHashMap<>();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder tokensUsed = new LongAdder();
+    private final LongAdder tokensSaved = new LongAdder();
+    private final LongAdder eventsDropped = new LongAdder();
+    
+    /**
+     * Render the most relevant events for the given user text within the token budget
+     */
+    public String build(List<Event> events, String userText) {
+        if (events.isEmpty()) {
+            return "No events found.";
+        }
+        Set<String> terms = terms(userText);
+        
+        List<ScoredEvent> ranked = new ArrayList<>(events.size());
+        int verboseTokens = 0;
+        for (Event event : events) {
+            CompactEvent compact = compact(event);
+            verboseTokens += compact.verboseTokens();
+            ranked.add(new ScoredEvent(compact, score(compact.searchText(), terms), event));
+        }
+        ranked.sort(Comparator.comparingInt(ScoredEvent::score).reversed()
+                .thenComparing(scored -> scored.event().getEventDate(), Comparator.nullsLast(Comparator.naturalOrder())));
+        
+        StringBuilder sb = new StringBuilder(HEADER);
+        int used = estimateTokens(HEADER);
+        int included = 0;
+        for (ScoredEvent scored : ranked) {
+            if (used + scored.compact().tokens() > tokenBudget) {
+                break;
+            }
+            sb.append(scored.compact().line());
+            used += scored.compact().tokens();
+            included++;
+        }
+        
+        builds.increment();
+        tokensUsed.add(used);
+        tokensSaved.add(Math.max(0, verboseTokens - used));
+        eventsDropped.add(events.size() - included);
+        log.debug("Prompt context: {} of {} events, ~{} tokens (verbose format ~{})",
+                included, events.size(), used, verboseTokens);
+        return sb.toString();
+    }
+    
+    public void evict(Long eventId) {
+        cache.remove(eventId);
+    }
+    
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "builds", builds.sum(),
+                "tokensUsed", tokensUsed.sum(),
+                "tokensSaved", tokensSaved.sum(),
+                "eventsDropped", eventsDropped.sum()
+        );
+    }
+    
+    /**
+     * Cached per event and reused until the entity version or live seat count changes
+     */
+    private CompactEvent compact(Event event) {
+        CompactEvent cached = cache.get(event.getId());
+        if (cached != null && Objects.equals(cached.version(), event.getVersion())
+                && Objects.equals(cached.availableSeats(), event.getAvailableSeats())) {
+            return cached;
+        }
+        String line = event.getId() + "|" + event.getName() + "|" + event.getVenue() + "|"
+                + (event.getEventDate() != null ? DATE_FORMAT.format(event.getEventDate()) : "") + "|"
+                + event.getCategory() + "|" + String.format(Locale.ROOT, "%.2f", event.getTicketPrice()) + "|"
+                + event.getAvailableSeats() + "\n";
+        String searchText = (event.getName() + " " + event.getVenue() + " " + event.getCategory() + " "
+                + (event.getDescription() != null ? event.getDescription() : "")).toLowerCase(Locale.ROOT);
+        // Length of the previous "- name at venue on date (Category: .., Price: $.., Available Seats: ..)" line
+        int verboseChars = line.length() + 60;
+        CompactEvent compact = new CompactEvent(event.getVersion(), event.getAvailableSeats(), line, estimateTokens(line),
+                estimateTokens(verboseChars), searchText);
+        cache.put(event.getId(), compact);
+        return compact;
+    }
+    
+    private static int score(String searchText, Set<String> terms) {
+        int score = 0;
+        for (String term : terms) {
+            if (searchText.contains(term)) {
+                score++;
+            }
+        }
+        return score;
+    }
+    
+    private static Set<String> terms(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+"))
+                .filter(term -> term.length() > 2 && !IGNORED_TERMS.contains(term))
+                .map(term -> term.length() > 4 && term.endsWith("s") ? term.substring(0, term.length() - 1) : term)
+                .collect(Collectors.toSet());
+    }
+    
+    /**
+     * Rough token estimate, about four characters per token for English text
+     */
+    static int estimateTokens(String text) {
+        return estimateTokens(text.length());
+    }
+    
+    private static int estimateTokens(int chars) {
+        return (chars + 3) / 4;
+    }
+    
+    private record CompactEvent(Long version, Integer availableSeats, String line, int tokens, int verboseTokens, String searchText) {
+    }
+    
+    private record ScoredEvent(CompactEvent compact, int score, Event event) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.ticketbooking.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects concurrent requests for a short window, or until a batch is full,
+ * and hands them to a handler as one group. The handler completes each
+ * request's future; anything it leaves open is failed with the handler's error.
+ */
+@Slf4j
+public class RequestCoalescer<I, O> {
+    
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Consumer<List<Pending<I, O>>> handler;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    
+    public RequestCoalescer(String name, int maxBatchSize, long maxWaitMs, Consumer<List<Pending<I, O>>> handler) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.handler = handler;
+        this.dispatcher = new Thread(this::dispatchLoop, name);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+    
+    public CompletableFuture<O> submit(I input) {
+        if (!running) {
+            throw new IllegalStateException("Coalescer is shut down");
+        }
+        Pending<I, O> pending = new Pending<>(input, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.future();
+    }
+    
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+    }
+    
+    private void dispatchLoop() {
+        List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Pending<I, O> first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        List<Pending<I, O>> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.future().completeExceptionally(new IllegalStateException("Coalescer is shut down")));
+    }
+    
+    private void dispatch(List<Pending<I, O>> batch) {
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Batch of {} requests failed", batch.size(), e);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+        // Safety net in case the handler returned without answering everyone
+        for (Pending<I, O> pending : batch) {
+            if (!pending.future().isDone()) {
+                pending.future().completeExceptionally(new IllegalStateException("Request was not processed"));
+            }
+        }
+    }
+    
+    public record Pending<I, O>(I input, CompletableFuture<O> future) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves search intent locally from keyword rules and the names of known
+ * events and venues, so most chat queries skip the analyzeSearchQuery LLM call.
+ * Returns empty when no rule is confident enough and the LLM should decide.
+ *
+ * Latency saved per chat request is recorded as a percentile timer: a query
+ * resolved locally saves the mean LLM analysis time minus the local match, one
+ * that goes to the LLM saves nothing.
+ */
+@Component
+@Slf4j
+public class SearchIntentRouter {
+    
+    private static final Map<String, List<String>> CATEGORY_KEYWORDS = Map.of(
+            "CONCERT", List.of("concert", "music", "band", "gig", "symphony", "orchestra", "rock", "jazz", "live music"),
+            "SPORTS", List.of("sport", "game", "match", "football", "soccer", "basketball", "nba", "fifa", "baseball"),
+            "THEATER", List.of("theater", "theatre", "play", "musical", "broadway", "comedy", "drama", "opera"),
+            "CONFERENCE", List.of("conference", "summit", "expo", "convention", "talk", "keynote", "tech"),
+            "FESTIVAL", List.of("festival", "fest", "fair", "carnival")
+    );
+    
+    private static final List<String> DATE_KEYWORDS = List.of(
+            "upcoming", "soon", "this week", "next week", "this weekend", "tonight", "tomorrow",
+            "this month", "next month", "coming up"
+    );
+    
+    private final EventRepository eventRepository;
+    private final CatalogVersion catalogVersion;
+    
+    @Value("${ai.intent.min-confidence:0.7}")
+    private double minConfidence;
+    
+    private volatile CatalogIndex index = new CatalogIndex(-1, List.of(), List.of());
+    // One rebuild at a time, other callers keep matching against the previous index
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    private final LongAdder resolvedLocally = new LongAdder();
+    private final LongAdder sentToLlm = new LongAdder();
+    private final Timer llmAnalyze;
+    private final Timer latencySaved;
+    
+    public SearchIntentRouter(EventRepository eventRepository, CatalogVersion catalogVersion, MeterRegistry registry) {
+        this.eventRepository = eventRepository;
+        this.catalogVersion = catalogVersion;
+        this.llmAnalyze = Timer.builder("ai.intent.llm.analyze")
+                .description("Search-intent analysis by the LLM for queries the local rules could not route")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.latencySaved = Timer.builder("ai.intent.latency.saved")
+                .description("Search-intent latency saved per chat request by routing it locally")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+    
+    public record SearchIntent(String searchType, String searchValue, double confidence) {
+    }
+    
+    /**
+     * Route a chat request, counting it and its saved latency in the stats
+     */
+    public Optional<SearchIntent> route(String query) {
+        long start = System.nanoTime();
+        Optional<SearchIntent> intent = match(query);
+        if (intent.isPresent()) {
+            resolvedLocally.increment();
+            log.debug("Resolved intent locally: {}", intent.get());
+            // Nothing to compare against until one query has been analyzed by the LLM
+            if (llmAnalyze.count() > 0) {
+                long saved = (long) llmAnalyze.mean(TimeUnit.NANOSECONDS) - (System.nanoTime() - start);
+                latencySaved.record(Math.max(0, saved), TimeUnit.NANOSECONDS);
+            }
+        }
+        return intent;
+    }
+    
+    /**
+     * The locally resolved intent, if any, without touching the stats
+     */
+    public Optional<SearchIntent> match(String query) {
+        if (query == null || query.isBlank()) {
+            return Optional.empty();
+        }
+        String text = " " + query.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim() + " ";
+        CatalogIndex catalog = currentIndex();
+        
+        return matchName(text, catalog.names())
+                .or(() -> matchVenue(text, catalog.venues()))
+                .or(() -> matchCategory(text))
+                .or(() -> matchDate(text))
+                .filter(candidate -> candidate.confidence() >= minConfidence);
+    }
+    
+    /**
+     * Record a query that had to be analyzed by the LLM and how long it took
+     */
+    public void recordLlmFallback(long nanos) {
+        sentToLlm.increment();
+        llmAnalyze.record(nanos, TimeUnit.NANOSECONDS);
+        latencySaved.record(0, TimeUnit.NANOSECONDS);
+    }
+    
+    public Map<String, Object> getStats() {
+        long local = resolvedLocally.sum();
+        long llm = sentToLlm.sum();
+        long total = local + llm;
+        return Map.of(
+                "resolvedLocally", local,
+                "sentToLlm", llm,
+                "localRatio", total == 0 ? 0.0 : (double) local / total,
+                "avgLlmAnalyzeMillis", llmAnalyze.mean(TimeUnit.MILLISECONDS),
+                "savedMillisP50", savedMillisAt(0.5),
+                "savedMillisP99", savedMillisAt(0.99)
+        );
+    }
+    
+    private double savedMillisAt(double percentile) {
+        for (ValueAtPercentile value : latencySaved.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Every category whose keywords appear in the query, not just the best one
+     */
+    public List<String> categoriesIn(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String text = " " + query.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim() + " ";
+        return CATEGORY_KEYWORDS.entrySet().stream()
+                .filter(entry -> entry.getValue().stream()
+                        .anyMatch(keyword -> text.contains(" " + keyword + " ") || text.contains(" " + keyword + "s ")))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+    
+    /**
+     * Whether the query asks about a time frame, such as "this weekend" or "upcoming"
+     */
+    public boolean mentionsDate(String query) {
+        if (query == null || query.isBlank()) {
+            return false;
+        }
+        String text = " " + query.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim() + " ";
+        return matchDate(text).isPresent();
+    }
+    
+    private Optional<SearchIntent> matchName(String text, List<Term> names) {
+        // Terms are sorted longest first so the most specific name wins
+        return names.stream()
+                .filter(name -> text.contains(" " + name.normalized() + " "))
+                .findFirst()
+                .map(name -> new SearchIntent("NAME", name.original(), 0.95));
+    }
+    
+    private Optional<SearchIntent> matchVenue(String text, List<Term> venues) {
+        return venues.stream()
+                .filter(venue -> text.contains(" " + venue.normalized() + " "))
+                .findFirst()
+                .map(venue -> new SearchIntent("VENUE", venue.original(), 0.9));
+    }
+    
+    private Optional<SearchIntent> matchCategory(String text) {
+        String best = null;
+        int bestHits = 0;
+        int categoriesHit = 0;
+        for (Map.Entry<String, List<String>> entry : CATEGORY_KEYWORDS.entrySet()) {
+            int hits = 0;
+            for (String keyword : entry.getValue()) {
+                if (text.contains(" " + keyword + " ") || text.contains(" " + keyword + "s ")) {
+                    hits++;
+                }
+            }
+            if (hits > 0) {
+                categoriesHit++;
+                if (hits > bestHits) {
+                    best = entry.getKey();
+                    bestHits = hits;
+                }
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+        // Keywords pointing at several categories make the guess less reliable
+        double confidence = categoriesHit == 1 ? 0.85 : 0.6;
+        return Optional.of(new SearchIntent("CATEGORY", best, confidence));
+    }
+    
+    private Optional<SearchIntent> matchDate(String text) {
+        return DATE_KEYWORDS.stream()
+                .filter(keyword -> text.contains(" " + keyword + " "))
+                .findFirst()
+                .map(keyword -> new SearchIntent("DATE", keyword, 0.8));
+    }
+    
+    private CatalogIndex currentIndex() {
+        CatalogIndex current = index;
+        long version = catalogVersion.current();
+        if (current.version() == version || !rebuildLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = index;
+            if (current.version() == version) {
+                return current;
+            }
+            // Names and venues only, not whole entities
+            List<Object[]> rows = eventRepository.findAllNamesAndVenues();
+            CatalogIndex rebuilt = new CatalogIndex(
+                    version,
+                    termsByLength(rows.stream().map(row -> (String) row[1]).toList()),
+                    termsByLength(rows.stream().map(row -> (String) row[2]).toList())
+            );
+            index = rebuilt;
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private static List<Term> termsByLength(List<String> values) {
+        return values.stream()
+                .distinct()
+                .map(value -> new Term(
+                        value.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim(),
+                        value))
+                .filter(term -> !term.normalized().isEmpty())
+                .sorted(Comparator.comparingInt((Term term) -> term.normalized().length()).reversed())
+                .toList();
+    }
+    
+    private record Term(String normalized, String original) {
+    }
+    
+    private record CatalogIndex(long version, List<Term> names, List<Term> venues) {
+    }
+}
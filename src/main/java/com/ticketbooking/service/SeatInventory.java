@@ -0,0 +1,144 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory seat counters per event.
+ * Reservations and releases are applied with CAS on the counter and written
+ * back to the events table asynchronously as accumulated deltas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventory {
+    
+    private final EventRepository eventRepository;
+    private final CatalogVersion catalogVersion;
+    private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * Rebuild counters from the database once the application is up. Counters that
+     * requests already created on demand are kept: they hold reservations whose
+     * deltas have not been written back yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Event> events = eventRepository.findAll();
+        for (Event event : events) {
+            counters.putIfAbsent(event.getId(), new SeatCounter(event.getAvailableSeats()));
+        }
+        log.info("Seat inventory loaded for {} events", events.size());
+    }
+    
+    /**
+     * Atomically take seats for an event. Returns false if not enough seats are left.
+     */
+    public boolean tryReserve(Long eventId, int seats) {
+        return tryReserve(eventId, seats, true);
+    }
+    
+    /**
+     * Take seats without queueing a write-back when the caller persists the
+     * seat change itself, as the booking journal drainer does.
+     */
+    public boolean tryReserve(Long eventId, int seats, boolean writeBack) {
+        SeatCounter counter = counter(eventId);
+        int current;
+        do {
+            current = counter.available.get();
+            if (current < seats) {
+                return false;
+            }
+        } while (!counter.available.compareAndSet(current, current - seats));
+        if (current == seats) {
+            catalogVersion.bumpAvailability();
+        }
+        if (writeBack) {
+            counter.pendingDelta.addAndGet(-seats);
+        }
+        return true;
+    }
+    
+    /**
+     * Give seats back to an event, e.g. on cancellation or a rolled back booking
+     */
+    public void release(Long eventId, int seats) {
+        release(eventId, seats, true);
+    }
+    
+    public void release(Long eventId, int seats, boolean writeBack) {
+        SeatCounter counter = counter(eventId);
+        if (counter.available.getAndAdd(seats) == 0 && seats > 0) {
+            catalogVersion.bumpAvailability();
+        }
+        if (writeBack) {
+            counter.pendingDelta.addAndGet(seats);
+        }
+    }
+    
+    public int getAvailableSeats(Long eventId) {
+        return counter(eventId).available.get();
+    }
+    
+    /**
+     * Add the counter of a new event. A request that reached the event first has
+     * already created it on demand, keep that one with its unflushed delta.
+     */
+    public void register(Event event) {
+        counters.putIfAbsent(event.getId(), new SeatCounter(event.getAvailableSeats()));
+    }
+    
+    public void remove(Long eventId) {
+        counters.remove(eventId);
+    }
+    
+    /**
+     * Write accumulated seat changes back to the events table
+     */
+    @Scheduled(fixedDelayString = "${booking.inventory.flush-interval-ms:200}")
+    public void flush() {
+        counters.forEach((eventId, counter) -> {
+            int delta = counter.pendingDelta.getAndSet(0);
+            if (delta == 0) {
+                return;
+            }
+            try {
+                eventRepository.adjustAvailableSeats(eventId, delta);
+            } catch (Exception e) {
+                log.warn("Failed to write back seat delta {} for event {}, will retry", delta, eventId, e);
+                counter.pendingDelta.addAndGet(delta);
+            }
+        });
+    }
+    
+    private SeatCounter counter(Long eventId) {
+        SeatCounter counter = counters.computeIfAbsent(eventId, id -> eventRepository.findById(id)
+                .map(event -> new SeatCounter(event.getAvailableSeats()))
+                .orElse(null));
+        if (counter == null) {
+            throw new BookingFailedException(BookingMetrics.Outcome.NOT_FOUND, "Event not found with ID: " + eventId);
+        }
+        return counter;
+    }
+    
+    private static final class SeatCounter {
+        private final AtomicInteger available;
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+        
+        private SeatCounter(int available) {
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
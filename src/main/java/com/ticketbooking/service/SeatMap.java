@@ -0,0 +1,352 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.SeatSectionRequest;
+import com.ticketbooking.dto.SeatSectionResponse;
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.entity.SeatSection;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import com.ticketbooking.repository.SeatSectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Assigned seating per event, one bitset per section with a bit per seat (1 = taken).
+ *
+ * Each row starts on a word boundary of an AtomicLongArray, so a block of adjacent
+ * seats spans at most a few words and is claimed with compare-and-set on just those
+ * words. Allocations for the same event never take a lock; two requests racing for
+ * the same seats see a failed CAS, and the loser gives back what it already claimed
+ * and searches again.
+ *
+ * The bitsets are rebuilt at startup from the seat ids recorded on bookings.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatMap {
+    
+    private static final int MAX_CLAIM_ATTEMPTS = 8;
+    
+    private final SeatSectionRepository seatSectionRepository;
+    private final EventRepository eventRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final Optional<BookingJournal> bookingJournal;
+    
+    private final Map<Long, List<Section>> events = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Object[] row : seatSectionRepository.findAllWithEventId()) {
+            events.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new Section((SeatSection) row[1]));
+        }
+        // Journaled bookings first: one drained in between is then found in the table
+        bookingJournal.ifPresent(journal -> journal.forEachPendingSeat(this::restore));
+        int restored = 0;
+        for (Object[] row : bookingRepository.findBookedSeatIds(
+                List.of(Booking.BookingStatus.CANCELLED, Booking.BookingStatus.EXPIRED))) {
+            restore((Long) row[0], (String) row[1]);
+            restored++;
+        }
+        log.info("Seat maps loaded for {} events, {} booked seats restored", events.size(), restored);
+    }
+    
+    public boolean hasSeatMap(Long eventId) {
+        return events.containsKey(eventId);
+    }
+    
+    /**
+     * Define the sections of an event. Seats must add up to the event's total, section
+     * names must be unique and nothing may have been sold yet. The sold check reads the
+     * live seat counter as well, the stored count lags it while bookings are written back.
+     */
+    public List<SeatSectionResponse> define(Long eventId, List<SeatSectionRequest> requests) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new RuntimeException("Event not found with ID: " + eventId));
+        if (events.containsKey(eventId)) {
+            throw new RuntimeException("Event already has a seat map");
+        }
+        if (!event.getAvailableSeats().equals(event.getTotalSeats())
+                || seatInventory.getAvailableSeats(eventId) != event.getTotalSeats()) {
+            throw new RuntimeException("Seat map cannot be added after tickets have been sold");
+        }
+        Set<String> names = new HashSet<>();
+        for (SeatSectionRequest request : requests) {
+            if (!names.add(request.getName())) {
+                throw new RuntimeException("Duplicate section name: " + request.getName());
+            }
+        }
+        int seats = requests.stream().mapToInt(request -> request.getRows() * request.getSeatsPerRow()).sum();
+        if (seats != event.getTotalSeats()) {
+            throw new RuntimeException("Sections hold " + seats + " seats but the event has " + event.getTotalSeats());
+        }
+        List<SeatSection> sections = requests.stream()
+                .map(request -> new SeatSection(null, event, request.getName(), request.getRows(),
+                        request.getSeatsPerRow(), request.getRank()))
+                .toList();
+        List<Section> loaded = new ArrayList<>();
+        for (SeatSection section : sections) {
+            loaded.add(new Section(section));
+        }
+        loaded.sort((a, b) -> Integer.compare(a.rank, b.rank));
+        // Claim the event before saving, a concurrent definition then fails instead of adding its sections too
+        if (events.putIfAbsent(eventId, loaded) != null) {
+            throw new RuntimeException("Event already has a seat map");
+        }
+        try {
+            seatSectionRepository.saveAll(sections);
+        } catch (RuntimeException e) {
+            events.remove(eventId, loaded);
+            throw e;
+        }
+        return describe(eventId);
+    }
+    
+    public void remove(Long eventId) {
+        if (events.remove(eventId) != null) {
+            seatSectionRepository.deleteByEventId(eventId);
+        }
+    }
+    
+    /**
+     * Claim the best block of adjacent seats: lowest section rank first, then the
+     * front-most row, then the block closest to the middle of the row.
+     */
+    public Optional<List<String>> allocateBestAvailable(Long eventId, int count) {
+        for (Section section : sections(eventId)) {
+            if (count > section.seatsPerRow || section.free.get() < count) {
+                continue;
+            }
+            for (int row = 0; row < section.rows; row++) {
+                for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+                    int start = section.findBlock(row, count);
+                    if (start < 0) {
+                        break;
+                    }
+                    if (section.claim(row, start, count)) {
+                        List<String> seatIds = new ArrayList<>(count);
+                        for (int seat = start; seat < start + count; seat++) {
+                            seatIds.add(section.seatId(row, seat));
+                        }
+                        return Optional.of(seatIds);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Claim exactly the given seats, all or nothing
+     */
+    public List<String> claim(Long eventId, List<String> seatIds) {
+        List<Section> sections = sections(eventId);
+        List<SeatRef> claimed = new ArrayList<>(seatIds.size());
+        for (String seatId : seatIds) {
+            SeatRef ref = resolve(sections, seatId);
+            if (!ref.section().claim(ref.row(), ref.seat(), 1)) {
+                claimed.forEach(done -> done.section().release(done.row(), done.seat()));
+                throw new BookingFailedException(BookingMetrics.Outcome.SOLD_OUT, "Seat " + seatId + " is no longer available");
+            }
+            claimed.add(ref);
+        }
+        return seatIds;
+    }
+    
+    public void release(Long eventId, Collection<String> seatIds) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+        List<Section> sections = sections(eventId);
+        for (String seatId : seatIds) {
+            SeatRef ref = resolve(sections, seatId);
+            ref.section().release(ref.row(), ref.seat());
+        }
+    }
+    
+    public List<SeatSectionResponse> describe(Long eventId) {
+        return sections(eventId).stream()
+                .map(section -> new SeatSectionResponse(section.name, section.rank, section.rows,
+                        section.seatsPerRow, section.free.get(), section.rowMap()))
+                .toList();
+    }
+    
+    private void restore(Long eventId, String seatId) {
+        List<Section> sections = events.get(eventId);
+        if (sections == null) {
+            log.warn("Booked seat {} belongs to event {} without a seat map", seatId, eventId);
+            return;
+        }
+        SeatRef ref = resolve(sections, seatId);
+        ref.section().claim(ref.row(), ref.seat(), 1);
+    }
+    
+    private List<Section> sections(Long eventId) {
+        List<Section> sections = events.get(eventId);
+        if (sections == null) {
+            throw new RuntimeException("Event " + eventId + " has no assigned seating");
+        }
+        return sections;
+    }
+    
+    private static SeatRef resolve(List<Section> sections, String seatId) {
+        int seatDash = seatId.lastIndexOf('-');
+        int rowDash = seatDash > 0 ? seatId.lastIndexOf('-', seatDash - 1) : -1;
+        if (rowDash <= 0) {
+            throw new RuntimeException("Invalid seat id: " + seatId);
+        }
+        String name = seatId.substring(0, rowDash);
+        int row;
+        int seat;
+        try {
+            row = Integer.parseInt(seatId.substring(rowDash + 1, seatDash)) - 1;
+            seat = Integer.parseInt(seatId.substring(seatDash + 1)) - 1;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid seat id: " + seatId);
+        }
+        for (Section section : sections) {
+            if (section.name.equals(name)) {
+                if (row < 0 || row >= section.rows || seat < 0 || seat >= section.seatsPerRow) {
+                    throw new RuntimeException("Invalid seat id: " + seatId);
+                }
+                return new SeatRef(section, row, seat);
+            }
+        }
+        throw new RuntimeException("Invalid seat id: " + seatId);
+    }
+    
+    private record SeatRef(Section section, int row, int seat) {
+    }
+    
+    private static final class Section {
+        private final String name;
+        private final int rank;
+        private final int rows;
+        private final int seatsPerRow;
+        private final int wordsPerRow;
+        private final AtomicLongArray taken;
+        private final AtomicInteger free;
+        
+        private Section(SeatSection section) {
+            this.name = section.getName();
+            this.rank = section.getRank();
+            this.rows = section.getRowCount();
+            this.seatsPerRow = section.getSeatsPerRow();
+            this.wordsPerRow = (seatsPerRow + 63) >>> 6;
+            this.taken = new AtomicLongArray(rows * wordsPerRow);
+            this.free = new AtomicInteger(rows * seatsPerRow);
+        }
+        
+        String seatId(int row, int seat) {
+            return name + "-" + (row + 1) + "-" + (seat + 1);
+        }
+        
+        /**
+         * Start of the free block of the given size closest to the row's centre, or -1
+         */
+        int findBlock(int row, int count) {
+            int base = row * wordsPerRow;
+            long[] words = new long[wordsPerRow];
+            for (int i = 0; i < wordsPerRow; i++) {
+                words[i] = taken.get(base + i);
+            }
+            int centre = seatsPerRow - count; // twice the ideal start, avoids fractions
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            int runStart = -1;
+            for (int seat = 0; seat <= seatsPerRow; seat++) {
+                boolean isFree = seat < seatsPerRow && (words[seat >>> 6] & (1L << seat)) == 0;
+                if (isFree) {
+                    if (runStart < 0) {
+                        runStart = seat;
+                    }
+                    continue;
+                }
+                if (runStart >= 0 && seat - runStart >= count) {
+                    int start = Math.max(runStart, Math.min(seat - count, centre / 2));
+                    int distance = Math.abs(2 * start - centre);
+                    if (distance < bestDistance) {
+                        best = start;
+                        bestDistance = distance;
+                    }
+                }
+                runStart = -1;
+            }
+            return best;
+        }
+        
+        /**
+         * Set the bits of seats [start, start + count) in a row if all are still free
+         */
+        boolean claim(int row, int start, int count) {
+            int base = row * wordsPerRow;
+            int end = start + count;
+            for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+                long mask = mask(word, start, end);
+                while (true) {
+                    long current = taken.get(base + word);
+                    if ((current & mask) != 0) {
+                        // Lost the race: undo the words already claimed
+                        for (int undo = start >>> 6; undo < word; undo++) {
+                            long undoMask = mask(undo, start, end);
+                            taken.getAndUpdate(base + undo, bits -> bits & ~undoMask);
+                        }
+                        return false;
+                    }
+                    if (taken.compareAndSet(base + word, current, current | mask)) {
+                        break;
+                    }
+                }
+            }
+            free.addAndGet(-count);
+            return true;
+        }
+        
+        void release(int row, int seat) {
+            long bit = 1L << seat;
+            long previous = taken.getAndUpdate(row * wordsPerRow + (seat >>> 6), bits -> bits & ~bit);
+            if ((previous & bit) != 0) {
+                free.incrementAndGet();
+            }
+        }
+        
+        List<String> rowMap() {
+            List<String> map = new ArrayList<>(rows);
+            for (int row = 0; row < rows; row++) {
+                StringBuilder sb = new StringBuilder(seatsPerRow);
+                for (int seat = 0; seat < seatsPerRow; seat++) {
+                    boolean isTaken = (taken.get(row * wordsPerRow + (seat >>> 6)) & (1L << seat)) != 0;
+                    sb.append(isTaken ? 'X' : '.');
+                }
+                map.add(sb.toString());
+            }
+            return map;
+        }
+        
+        /**
+         * Bits of seats [start, end) that fall into the given word of a row
+         */
+        private static long mask(int word, int start, int end) {
+            int from = Math.max(start, word << 6) - (word << 6);
+            int to = Math.min(end, (word + 1) << 6) - (word << 6);
+            long high = to == 64 ? -1L : (1L << to) - 1;
+            return high & ~((1L << from) - 1);
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.ticketbooking.service;
 
-import dev.langchain4j.service.SystemMessage;
-import dev.langchain4j.service.UserMessage;
-import dev.langchain4j.service.V;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
- * AI Assistant for ticket booking using Langchain4j
- * This interface will be automatically implemented by Langchain4j
+ * AI Assistant for ticket booking, answering through the LLM gateway without
+ * holding a thread while the model generates.
+ * Chat memory is kept per conversation id the way AiServices records it: system
+ * message and prompt go into the conversation before the call, the answer once it
+ * is complete. The one-shot JSON extraction prompts are in TicketBookingExtractor
+ * so they stay out of the conversation
  */
-public interface TicketBookingAssistant {
+@Component
+@RequiredArgsConstructor
+public class TicketBookingAssistant {
     
-    @SystemMessage("""
+    static final String CHAT_SYSTEM_MESSAGE = """
         You are a helpful ticket booking assistant. Your role is to help users find and book tickets for events.
         You can search for events by name, category, venue, or date.
         When users ask about booking tickets, extract the following information:
@@ -21,36 +35,49 @@ public interface TicketBookingAssistant {
         
         Be friendly, concise, and helpful. If information is missing, politely ask for it.
         Always confirm booking details before proceeding.
-        """)
-
-
-
-    @UserMessage("{{userQuery}}")
-    String chat(@V("userQuery") String userQuery);
+        """;
     
-    @SystemMessage("""
-        Extract booking information from the user's message.
-        Return a JSON object with the following fields:
-        - eventName: string (name of the event)
-        - numberOfTickets: integer (number of tickets to book)
-        - customerName: string (customer's name)
-        - customerEmail: string (customer's email)
-        
-        If any field is not mentioned, set it to null.
-        Return ONLY the JSON object, no additional text.
-        """)
-    @UserMessage("{{userMessage}}")
-    String extractBookingInfo(@V("userMessage") String userMessage);
+    private final LlmGateway llmGateway;
+    private final ChatMemoryProvider chatMemoryProvider;
     
-    @SystemMessage("""
-        Based on the user's query, determine what type of event search they want.
-        Return a JSON object with:
-        - searchType: string (NAME, CATEGORY, VENUE, DATE, or GENERAL)
-        - searchValue: string (the value to search for)
-        
-        Categories can be: CONCERT, SPORTS, THEATER, CONFERENCE, FESTIVAL
-        Return ONLY the JSON object, no additional text.
-        """)
-    @UserMessage("{{query}}")
-    String analyzeSearchQuery(@V("query") String query);
+    public CompletableFuture<String> chat(String conversationId, String userQuery) {
+        ChatMemory memory = ask(conversationId, userQuery);
+        return llmGateway.submit(memory.messages()).thenApply(response -> {
+            memory.add(response.content());
+            return response.content().text();
+        });
+    }
+    
+    /**
+     * Stream the answer to the handler; the returned handle stops the generation. A
+     * cancelled stream leaves the question without an answer, like a failed chat call.
+     */
+    public LlmGateway.StreamHandle stream(String conversationId, String userQuery,
+                                          StreamingResponseHandler<AiMessage> handler) {
+        ChatMemory memory = ask(conversationId, userQuery);
+        return llmGateway.stream(memory.messages(), new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                handler.onNext(token);
+            }
+            
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                memory.add(response.content());
+                handler.onComplete(response);
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                handler.onError(error);
+            }
+        });
+    }
+    
+    private ChatMemory ask(String conversationId, String userQuery) {
+        ChatMemory memory = chatMemoryProvider.get(conversationId);
+        memory.add(SystemMessage.from(CHAT_SYSTEM_MESSAGE));
+        memory.add(UserMessage.from(userQuery));
+        return memory;
+    }
 }
@@ -0,0 +1,55 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stateless JSON extraction calls, sent without chat memory: their prompts and
+ * replies must not take turns from the conversation window of TicketBookingAssistant
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketBookingExtractor {
+    
+    private static final String EXTRACT_BOOKING_SYSTEM_MESSAGE = """
+        Extract booking information from the user's message.
+        Return a JSON object with the following fields:
+        - eventName: string (name of the event)
+        - numberOfTickets: integer (number of tickets to book)
+        - customerName: string (customer's name)
+        - customerEmail: string (customer's email)
+        
+        If any field is not mentioned, set it to null.
+        Return ONLY the JSON object, no additional text.
+        """;
+    
+    private static final String ANALYZE_SEARCH_SYSTEM_MESSAGE = """
+        Based on the user's query, determine what type of event search they want.
+        Return a JSON object with:
+        - searchType: string (NAME, CATEGORY, VENUE, DATE, or GENERAL)
+        - searchValue: string (the value to search for)
+        
+        Categories can be: CONCERT, SPORTS, THEATER, CONFERENCE, FESTIVAL
+        Return ONLY the JSON object, no additional text.
+        """;
+    
+    private final LlmGateway llmGateway;
+    
+    public CompletableFuture<String> extractBookingInfo(String userMessage) {
+        return ask(EXTRACT_BOOKING_SYSTEM_MESSAGE, userMessage);
+    }
+    
+    public CompletableFuture<String> analyzeSearchQuery(String query) {
+        return ask(ANALYZE_SEARCH_SYSTEM_MESSAGE, query);
+    }
+    
+    private CompletableFuture<String> ask(String systemMessage, String userMessage) {
+        return llmGateway.submit(List.of(SystemMessage.from(systemMessage), UserMessage.from(userMessage)))
+                .thenApply(response -> response.content().text());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ticketbooking.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of timeouts.
+ * Scheduling is O(1): callers append to a lock-free pending queue, and the worker
+ * moves pending items into the bucket of their deadline tick modulo the wheel size
+ * at the start of every tick. Only the worker touches the buckets. Each tick only
+ * looks at one bucket; items due in a later revolution stay in it, and due items
+ * are handed to the handler in batches.
+ */
+@Slf4j
+public class TimingWheel<T> {
+    
+    private final long tickNanos;
+    private final int maxBatchSize;
+    private final Consumer<List<T>> handler;
+    private final Queue<Entry<T>> pending = new ConcurrentLinkedQueue<>();
+    private final List<ArrayDeque<Entry<T>>> buckets;
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile long currentTick;
+    private volatile boolean running = true;
+    
+    public TimingWheel(String name, long tickMs, int wheelSize, int maxBatchSize, Consumer<List<T>> handler) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.worker = new Thread(this::tickLoop, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    /**
+     * Hand the item to the handler once the delay has passed, rounded up to whole ticks
+     */
+    public void schedule(T item, long delayMs) {
+        long elapsed = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        long deadline = (elapsed + tickNanos - 1) / tickNanos;
+        pending.add(new Entry<>(item, Math.max(deadline, currentTick + 1)));
+    }
+    
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+    }
+    
+    private void tickLoop() {
+        while (running) {
+            long next = currentTick + 1;
+            long sleepNanos = startNanos + next * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            currentTick = next;
+            advance(next);
+        }
+    }
+    
+    private void advance(long tick) {
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            // Anything that became due while pending is handled in this tick
+            long bucketTick = Math.max(entry.tick(), tick);
+            buckets.get((int) (bucketTick % buckets.size())).add(entry);
+        }
+        List<T> due = new ArrayList<>();
+        Iterator<Entry<T>> it = buckets.get((int) (tick % buckets.size())).iterator();
+        while (it.hasNext()) {
+            entry = it.next();
+            if (entry.tick() <= tick) {
+                due.add(entry.item());
+                it.remove();
+            }
+        }
+        for (int from = 0; from < due.size(); from += maxBatchSize) {
+            List<T> batch = due.subList(from, Math.min(due.size(), from + maxBatchSize));
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                log.error("Timeout handler failed for {} items, retrying later", batch.size(), e);
+                long retryMs = TimeUnit.NANOSECONDS.toMillis(tickNanos) * 10;
+                batch.forEach(item -> schedule(item, retryMs));
+            }
+        }
+    }
+    
+    private record Entry<T>(T item, long tick) {
+    }
+}
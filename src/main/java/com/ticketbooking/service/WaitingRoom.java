@@ -0,0 +1,300 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.QueueStatus;
+import com.ticketbooking.entity.Event;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Admission control in front of booking writes, one waiting room per event.
+ *
+ * A token bucket refilled every tick sets the admission rate. While a room's queue
+ * is empty, requests that find a token in the bucket go straight through; everyone
+ * else draws a ticket. The queue itself is just two counters, the next ticket to
+ * hand out and the admission frontier, so a waiting client costs no memory at all:
+ * each tick moves the frontier forward by as many tokens as the bucket holds and
+ * every ticket below it is admitted, in FIFO order.
+ *
+ * Tickets are handed out as signed tokens (event, sequence, MAC) that clients poll
+ * with and present on the booking request. An admitted token stays valid for a
+ * limited time, after which the client has to queue again, and lets exactly one
+ * booking through: the first request presenting it consumes the ticket.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoom {
+    
+    private static final int MAC_BYTES = 12;
+    
+    private final EventCache eventCache;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${booking.waiting-room.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${booking.waiting-room.admit-per-second:200}")
+    private int admitPerSecond;
+    
+    @Value("${booking.waiting-room.burst:200}")
+    private int burst;
+    
+    @Value("${booking.waiting-room.tick-ms:100}")
+    private long tickMs;
+    
+    @Value("${booking.waiting-room.admitted-ttl-seconds:60}")
+    private long admittedTtlSeconds;
+    
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final byte[] macKey = newKey();
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    
+    /**
+     * Decide whether a booking request for the event may go ahead now.
+     * Without a token the caller is admitted directly or handed a ticket; with a
+     * token the ticket's place in the queue decides, and an admitted ticket is
+     * used up by this call.
+     */
+    public QueueStatus enter(Long eventId, String token) {
+        if (!enabled) {
+            return new QueueStatus(eventId, null, true, 0L, 0L);
+        }
+        if (token != null) {
+            Ticket ticket = parse(token);
+            if (!ticket.eventId().equals(eventId)) {
+                throw new RuntimeException("Queue token belongs to another event");
+            }
+            QueueStatus status = status(ticket, token);
+            if (status.isAdmitted() && !rooms.get(eventId).consumed.add(ticket.sequence())) {
+                throw new RuntimeException("Queue token has already been used");
+            }
+            return status;
+        }
+        if (eventCache.findById(eventId).isEmpty()) {
+            // Let the booking fail with the usual error rather than open a room for it
+            return new QueueStatus(eventId, null, true, 0L, 0L);
+        }
+        Room room = rooms.computeIfAbsent(eventId, id -> {
+            log.info("Waiting room opened for event {}", id);
+            Room opened = new Room();
+            registerMeters(id, opened);
+            return opened;
+        });
+        if (room.waiting() == 0 && room.takeTokens(1) == 1) {
+            room.admitted.incrementAndGet();
+            return new QueueStatus(eventId, null, true, 0L, 0L);
+        }
+        long sequence = room.tail.getAndIncrement();
+        String issued = sign(eventId, sequence);
+        return status(new Ticket(eventId, sequence), issued);
+    }
+    
+    /**
+     * Current place of a token in its queue, without side effects
+     */
+    public QueueStatus status(String token) {
+        return status(parse(token), token);
+    }
+    
+    /**
+     * Refill every room's bucket and move its frontier past as many tickets as there are tokens
+     */
+    @Scheduled(fixedRateString = "${booking.waiting-room.tick-ms:100}")
+    public void tick() {
+        long refill = Math.max(1, admitPerSecond * tickMs / 1000);
+        for (Room room : rooms.values()) {
+            room.tokens.getAndUpdate(tokens -> Math.min(burst, tokens + refill));
+            long waiting = room.waiting();
+            if (waiting > 0) {
+                long admitted = room.takeTokens(waiting);
+                room.frontier.addAndGet(admitted);
+                room.admitted.addAndGet(admitted);
+            }
+            room.record();
+            // Tickets below the expiry cutoff are refused anyway, forget that they were used
+            room.consumed.headSet(room.frontierBefore(ttlTicks())).clear();
+        }
+    }
+    
+    /**
+     * Queue depth, total admissions and admissions over the last second per event
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        rooms.forEach((eventId, room) -> stats.put(String.valueOf(eventId), Map.of(
+                "queueDepth", room.waiting(),
+                "admitted", room.admitted.get(),
+                "admittedLastSecond", room.admittedSince(ticksPerSecond()),
+                "issuedTickets", room.tail.get()
+        )));
+        return stats;
+    }
+    
+    /**
+     * Events with a waiting room are the hot ones: export their queue and live seat count
+     */
+    private void registerMeters(Long eventId, Room room) {
+        String tag = String.valueOf(eventId);
+        Gauge.builder("booking.waiting.room.depth", room, Room::waiting)
+                .tag("eventId", tag)
+                .register(meterRegistry);
+        FunctionCounter.builder("booking.waiting.room.admitted", room, r -> r.admitted.get())
+                .tag("eventId", tag)
+                .register(meterRegistry);
+        Gauge.builder("booking.event.available.seats", eventCache,
+                        cache -> cache.findById(eventId).map(Event::getAvailableSeats).orElse(0))
+                .tag("eventId", tag)
+                .register(meterRegistry);
+    }
+    
+    private QueueStatus status(Ticket ticket, String token) {
+        Room room = rooms.get(ticket.eventId());
+        if (room == null) {
+            throw new RuntimeException("Invalid queue token");
+        }
+        long frontier = room.frontier.get();
+        if (ticket.sequence() < frontier) {
+            if (ticket.sequence() < room.frontierBefore(ttlTicks())) {
+                throw new RuntimeException("Queue token has expired, please join the queue again");
+            }
+            return new QueueStatus(ticket.eventId(), token, true, 0L, 0L);
+        }
+        long position = ticket.sequence() - frontier + 1;
+        long waitSeconds = (position + admitPerSecond - 1) / admitPerSecond;
+        return new QueueStatus(ticket.eventId(), token, false, position, waitSeconds);
+    }
+    
+    private String sign(Long eventId, long sequence) {
+        String payload = eventId + "." + sequence;
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(mac(payload));
+    }
+    
+    private Ticket parse(String token) {
+        int last = token.lastIndexOf('.');
+        int first = token.indexOf('.');
+        if (first <= 0 || last == first) {
+            throw new RuntimeException("Invalid queue token");
+        }
+        String payload = token.substring(0, last);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, mac(payload))) {
+                throw new RuntimeException("Invalid queue token");
+            }
+            return new Ticket(Long.parseLong(token.substring(0, first)),
+                    Long.parseLong(payload.substring(first + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid queue token");
+        }
+    }
+    
+    private byte[] mac(String payload) {
+        return Arrays.copyOf(macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8)), MAC_BYTES);
+    }
+    
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(macKey, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+    
+    private static byte[] newKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+    
+    private int ttlTicks() {
+        return (int) Math.max(1, admittedTtlSeconds * 1000 / tickMs);
+    }
+    
+    private int ticksPerSecond() {
+        return (int) Math.max(1, 1000 / tickMs);
+    }
+    
+    private record Ticket(Long eventId, long sequence) {
+    }
+    
+    /**
+     * Counters of one event's queue. The tick is the only writer of the frontier and
+     * the history rings; request threads only draw tickets, take tokens and mark
+     * admitted tickets as used.
+     */
+    private final class Room {
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong frontier = new AtomicLong();
+        private final AtomicLong tokens = new AtomicLong(burst);
+        private final AtomicLong admitted = new AtomicLong();
+        // Admitted tickets already presented on a booking, pruned once they expire
+        private final ConcurrentSkipListSet<Long> consumed = new ConcurrentSkipListSet<>();
+        // Frontier and admission count at each of the last ticks, for token expiry and the rate
+        private final AtomicLongArray frontierHistory = new AtomicLongArray(Math.max(ttlTicks(), ticksPerSecond()) + 1);
+        private final AtomicLongArray admittedHistory = new AtomicLongArray(frontierHistory.length());
+        private volatile long ticks;
+        
+        long waiting() {
+            return tail.get() - frontier.get();
+        }
+        
+        /**
+         * Take up to the wanted number of tokens, returns how many were taken
+         */
+        long takeTokens(long wanted) {
+            while (true) {
+                long available = tokens.get();
+                long taken = Math.min(available, wanted);
+                if (taken <= 0) {
+                    return 0;
+                }
+                if (tokens.compareAndSet(available, available - taken)) {
+                    return taken;
+                }
+            }
+        }
+        
+        void record() {
+            long tick = ticks + 1;
+            int index = (int) (tick % frontierHistory.length());
+            frontierHistory.set(index, frontier.get());
+            admittedHistory.set(index, admitted.get());
+            ticks = tick;
+        }
+        
+        long frontierBefore(int ticksAgo) {
+            long tick = ticks - ticksAgo;
+            return tick <= 0 ? 0 : frontierHistory.get((int) (tick % frontierHistory.length()));
+        }
+        
+        long admittedSince(int ticksAgo) {
+            long tick = ticks - ticksAgo;
+            long before = tick <= 0 ? 0 : admittedHistory.get((int) (tick % admittedHistory.length()));
+            return admitted.get() - before;
+        }
+    }
+}
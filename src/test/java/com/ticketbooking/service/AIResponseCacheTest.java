@@ -0,0 +1,43 @@
+package com.ticketbooking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AIResponseCacheTest {
+    
+    private CatalogVersion catalogVersion;
+    private AIResponseCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        cache = new AIResponseCache(catalogVersion);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "availabilityTtlSeconds", 0L);
+    }
+    
+    @Test
+    void soldOutEventRetiresCachedAnswers() {
+        String key = cache.key("any jazz concerts?");
+        cache.put(key, "Summer Jazz Night on Friday is worth a look.");
+        assertThat(cache.get(cache.key("jazz concerts"))).isNotNull();
+        
+        catalogVersion.bumpAvailability();
+        
+        assertThat(cache.get(cache.key("any jazz concerts?"))).isNull();
+    }
+    
+    @Test
+    void answersQuotingSeatCountsExpireWithTheAvailabilityTtl() throws InterruptedException {
+        cache.put(cache.key("jazz"), "Summer Jazz Night still has 12 seats.");
+        cache.put(cache.key("rock"), "Rock Fest is on Saturday.");
+        Thread.sleep(2);
+        
+        assertThat(cache.get(cache.key("jazz"))).isNull();
+        assertThat(cache.get(cache.key("rock"))).isNotNull();
+    }
+}
@@ -0,0 +1,112 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10,000 concurrent single-ticket bookings against an event with 1,000 seats.
+ * Exactly the seats on offer must be sold, every other request must fail as sold
+ * out, and the stored seat count must match the bookings written. Subclasses run
+ * it per inventory mode; throughput is logged so the modes can be compared.
+ */
+abstract class AbstractSeatContentionTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(AbstractSeatContentionTest.class);
+    
+    private static final int SEATS = 1_000;
+    private static final int ATTEMPTS = 10_000;
+    private static final int THREADS = 64;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private SeatInventory seatInventory;
+    
+    @Test
+    void concurrentBookingsNeverOversell() throws InterruptedException {
+        Event event = eventService.createEvent(event());
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        Map<String, Integer> unexpected = new ConcurrentHashMap<>();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            int attempt = i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    bookingService.createBooking(new BookingRequest(event.getId(), "Fan " + attempt,
+                            "fan" + attempt + "@example.com", 1, null));
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if (String.valueOf(e.getMessage()).startsWith("Not enough seats available")) {
+                        soldOut.incrementAndGet();
+                    } else {
+                        unexpected.merge(e.getClass().getSimpleName() + ": " + e.getMessage(), 1, Integer::sum);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("{}: {} attempts in {} ms ({} requests/s), {} booked, {} sold out",
+                getClass().getSimpleName(), ATTEMPTS, elapsedMs, ATTEMPTS * 1000L / elapsedMs, booked.get(), soldOut.get());
+        
+        assertThat(unexpected).isEmpty();
+        assertThat(booked).hasValue(SEATS);
+        assertThat(soldOut).hasValue(ATTEMPTS - SEATS);
+        
+        // In MEMORY mode the counter is written back in the background, push it out now
+        seatInventory.flush();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAvailableSeats()).isZero();
+        assertThat(bookingRepository.findAll().stream()
+                .filter(booking -> booking.getEvent().getId().equals(event.getId()))
+                .count()).isEqualTo(SEATS);
+    }
+    
+    private static Event event() {
+        Event event = new Event();
+        event.setName("Contention Test " + System.nanoTime());
+        event.setVenue("Test Arena");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setTicketPrice(50.0);
+        event.setTotalSeats(SEATS);
+        event.setAvailableSeats(SEATS);
+        event.setCategory("CONCERT");
+        event.setDescription("Hot event for the contention test");
+        return event;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bookings in BATCH write mode, with a coalescing window long enough that requests
+ * started together are committed as one group.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "booking.write-mode=BATCH",
+        "booking.batch.max-wait-ms=200",
+        "spring.datasource.url=jdbc:h2:mem:batch-booking;DB_CLOSE_DELAY=-1"
+})
+class BatchBookingTest {
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private SeatInventory seatInventory;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Test
+    void aGroupWhereOneRequestFailsStillAnswersTheOthers() throws Exception {
+        Event event = eventService.createEvent(event("Group Commit Night"));
+        List<BookingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(new BookingRequest(event.getId(), "Guest " + i, "guest" + i + "@example.com", 2, null));
+        }
+        requests.add(new BookingRequest(event.getId(), "Too Many", "many@example.com", 50, null));
+        requests.add(new BookingRequest(Long.MAX_VALUE, "Lost", "lost@example.com", 1, null));
+        
+        ExecutorService callers = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<BookingResponse>> bookings = new ArrayList<>();
+        for (BookingRequest request : requests) {
+            bookings.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return bookingService.createBooking(request);
+            }, callers));
+        }
+        start.countDown();
+        
+        for (int i = 0; i < 4; i++) {
+            assertThat(bookings.get(i).get(5, TimeUnit.SECONDS).getBookingReference()).isNotBlank();
+        }
+        assertThat(bookings.get(4)).failsWithin(5, TimeUnit.SECONDS).withThrowableThat()
+                .withMessageContaining("Not enough seats available");
+        assertThat(bookings.get(5)).failsWithin(5, TimeUnit.SECONDS).withThrowableThat()
+                .withMessageContaining("Event not found");
+        callers.shutdown();
+        
+        // Only the answered requests took seats and were written
+        assertThat(seatInventory.getAvailableSeats(event.getId())).isEqualTo(2);
+        assertThat(bookingRepository.findAll()).filteredOn(booking -> booking.getEvent().getId().equals(event.getId()))
+                .hasSize(4);
+    }
+    
+    private static Event event(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setVenue("Batch Hall");
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setTicketPrice(25.0);
+        event.setTotalSeats(10);
+        event.setCategory("CONCERT");
+        event.setDescription("Batch write test");
+        return event;
+    }
+}
@@ -0,0 +1,318 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Crash safety of the write-behind journal. A crash is simulated by abandoning a
+ * journal without draining it; a new journal on the same directory then replays
+ * the segments, and the bookings table shows exactly what survived.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:booking-journal;DB_CLOSE_DELAY=-1"
+})
+class BookingJournalTest {
+    
+    private static final int SEATS = 100_000;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private Path directory;
+    private Event event;
+    private BookingJournal journal;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("booking-journal");
+        event = eventRepository.save(event());
+        journal = open();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        crash(journal);
+        FileSystemUtils.deleteRecursively(directory);
+    }
+    
+    @Test
+    void undrainedBookingsAreReplayedAfterACrash() throws IOException {
+        List<String> references = append("replay", 3);
+        
+        restart();
+        
+        assertThat(stored(references)).containsExactlyInAnyOrderElementsOf(references);
+        assertThat(eventRepository.findAvailableSeats(event.getId())).isEqualTo(SEATS - 3);
+    }
+    
+    @Test
+    void corruptedLastFrameIsDropped() throws IOException {
+        List<String> references = append("corrupt", 3);
+        crash(journal);
+        List<Integer> frames = frameOffsets(segment(0));
+        flipByte(segment(0), frames.get(2) + 12);
+        
+        journal = open();
+        
+        assertThat(stored(references)).containsExactlyInAnyOrderElementsOf(references.subList(0, 2));
+    }
+    
+    @Test
+    void halfWrittenLastFrameIsDroppedAndLaterAppendsReplay() throws IOException {
+        List<String> references = append("torn", 3);
+        crash(journal);
+        int last = frameOffsets(segment(0)).get(2);
+        zero(segment(0), last + 8 + 10, 40);
+        
+        journal = open();
+        assertThat(stored(references)).containsExactlyInAnyOrderElementsOf(references.subList(0, 2));
+        
+        // The torn tail was cleared, so a frame written over it is replayed as well
+        List<String> later = append("after-torn", 1);
+        restart();
+        assertThat(stored(later)).containsExactlyElementsOf(later);
+    }
+    
+    @Test
+    void replayStartsAtTheCheckpointAndSkipsBookingsAlreadyInserted() throws IOException {
+        List<String> drained = append("drained", 2);
+        journal.drain();
+        Path checkpoint = directory.resolve("checkpoint");
+        Path drainedCheckpoint = directory.resolve("checkpoint.drained");
+        Files.copy(checkpoint, drainedCheckpoint);
+        List<String> undrained = append("undrained", 1);
+        restart();
+        List<String> replayed = append("replayed", 1);
+        crash(journal);
+        // Crash between an insert and its checkpoint write: frames after the older checkpoint come back
+        Files.move(drainedCheckpoint, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        
+        journal = open();
+        
+        List<String> all = new ArrayList<>(drained);
+        all.addAll(undrained);
+        all.addAll(replayed);
+        assertThat(bookingRepository.findByBookingReferenceIn(all)).hasSize(4);
+        assertThat(eventRepository.findAvailableSeats(event.getId())).isEqualTo(SEATS - 4);
+    }
+    
+    @Test
+    void segmentsRollAndDrainedSegmentsAreDeleted() throws Exception {
+        // Roughly 100 bytes a frame: 12,000 bookings need more than one 1 MB segment
+        int threads = 8;
+        int perThread = 1_500;
+        long before = bookingRepository.count();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "roll-" + t;
+            results.add(pool.submit(() -> append(prefix, perThread)));
+        }
+        for (Future<List<String>> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+        assertThat(segments()).hasSizeGreaterThan(1);
+        
+        journal.drain();
+        
+        assertThat(segments()).hasSize(1);
+        assertThat(bookingRepository.count() - before).isEqualTo(threads * perThread);
+        restart();
+        assertThat(bookingRepository.count() - before).isEqualTo(threads * perThread);
+    }
+    
+    @Test
+    void rolledBackBookingIsNeverDrained() throws IOException {
+        String rolledBack = "BK-J-rolled-back";
+        String committed = "BK-J-committed";
+        transactionTemplate.executeWithoutResult(status -> {
+            journal.append(booking(rolledBack), new BookingResponse());
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            journal.append(booking(committed), new BookingResponse());
+            // Not visible to the drainer until this transaction commits
+            CompletableFuture.runAsync(journal::drain).join();
+            assertThat(journal.findPending(committed)).isNull();
+        });
+        assertThat(stored(List.of(committed))).isEmpty();
+        
+        journal.drain();
+        assertThat(stored(List.of(rolledBack, committed))).containsExactly(committed);
+        
+        // The tombstone keeps replay from inserting it either
+        Files.delete(directory.resolve("checkpoint"));
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.deleteAll(
+                bookingRepository.findByBookingReferenceIn(List.of(committed))));
+        restart();
+        assertThat(stored(List.of(rolledBack, committed))).containsExactly(committed);
+    }
+    
+    @Test
+    void rejectedBookingIsDeadLetteredWithoutBlockingTheRest() throws IOException {
+        List<String> first = append("before-poison", 2);
+        Event missing = new Event();
+        missing.setId(Long.MAX_VALUE);
+        Booking poison = booking("BK-J-poison");
+        poison.setEvent(missing);
+        journal.append(poison, new BookingResponse());
+        List<String> second = append("after-poison", 2);
+        
+        journal.drain();
+        
+        List<String> good = new ArrayList<>(first);
+        good.addAll(second);
+        assertThat(stored(good)).containsExactlyInAnyOrderElementsOf(good);
+        assertThat(Files.readAllLines(directory.resolve("dead-letter.log")))
+                .singleElement().asString().startsWith("BK-J-poison\t");
+        
+        // The checkpoint moved past it, a restart does not retry it
+        restart();
+        assertThat(Files.readAllLines(directory.resolve("dead-letter.log"))).hasSize(1);
+    }
+    
+    private BookingJournal open() throws IOException {
+        BookingJournal opened = new BookingJournal(bookingRepository, eventRepository, transactionTemplate);
+        ReflectionTestUtils.setField(opened, "journalDir", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(opened, "fsyncIntervalMs", 1L);
+        ReflectionTestUtils.setField(opened, "drainBatchSize", 500);
+        ReflectionTestUtils.setField(opened, "inventoryMode", BookingService.InventoryMode.MEMORY);
+        opened.start();
+        return opened;
+    }
+    
+    private void restart() throws IOException {
+        crash(journal);
+        journal = open();
+    }
+    
+    /**
+     * Stop the fsync thread and drop the journal without draining it
+     */
+    private static void crash(BookingJournal journal) throws IOException {
+        ReflectionTestUtils.setField(journal, "running", false);
+        try {
+            ((Thread) ReflectionTestUtils.getField(journal, "fsyncThread")).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ((FileChannel) ReflectionTestUtils.getField(journal, "channel")).close();
+    }
+    
+    private List<String> append(String prefix, int count) {
+        List<String> references = IntStream.range(0, count).mapToObj(i -> "BK-J-" + prefix + "-" + i).toList();
+        references.forEach(reference -> journal.append(booking(reference), new BookingResponse()));
+        return references;
+    }
+    
+    private List<String> stored(List<String> references) {
+        return bookingRepository.findByBookingReferenceIn(references).stream()
+                .map(Booking::getBookingReference)
+                .toList();
+    }
+    
+    private Path segment(long index) {
+        return directory.resolve(String.format("journal-%010d.log", index));
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).toList();
+        }
+    }
+    
+    private static List<Integer> frameOffsets(Path segment) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Integer> offsets = new ArrayList<>();
+        while (data.remaining() >= 8) {
+            int start = data.position();
+            int length = data.getInt();
+            if (length == 0) {
+                break;
+            }
+            offsets.add(start);
+            data.position(start + 8 + length);
+        }
+        return offsets;
+    }
+    
+    private static void flipByte(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset);
+            one.put(0, (byte) (one.get(0) ^ 0xFF)).rewind();
+            channel.write(one, offset);
+        }
+    }
+    
+    private static void zero(Path segment, int offset, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(length), offset);
+        }
+    }
+    
+    private Booking booking(String reference) {
+        Booking booking = new Booking();
+        booking.setEvent(event);
+        booking.setCustomerName("Journal Customer");
+        booking.setCustomerEmail("journal@example.com");
+        booking.setNumberOfTickets(1);
+        booking.setTotalAmount(event.getTicketPrice());
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setBookingReference(reference);
+        return booking;
+    }
+    
+    private static Event event() {
+        Event event = new Event();
+        event.setName("Journal Event");
+        event.setVenue("Test Hall");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setTicketPrice(40.0);
+        event.setTotalSeats(SEATS);
+        event.setAvailableSeats(SEATS);
+        event.setCategory("CONFERENCE");
+        event.setDescription("Journal test");
+        return event;
+    }
+}
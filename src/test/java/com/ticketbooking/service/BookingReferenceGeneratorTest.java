@@ -0,0 +1,144 @@
+package com.ticketbooking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingReferenceGeneratorTest {
+    
+    private static final String SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ*~$=U";
+    private static final int SEQUENCE_BITS = 10;
+    
+    private BookingReferenceGenerator generator;
+    
+    @BeforeEach
+    void setUp() {
+        generator = new BookingReferenceGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 7);
+        generator.init();
+    }
+    
+    /**
+     * Scaled down from 100M ids: 16 threads share the 16 stripes and each takes far
+     * more than 1,024 ids per millisecond, so sequences keep spilling into later milliseconds
+     */
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        int threads = 16;
+        int perThread = 250_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Callable<long[]> task = () -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = decode(generator.next());
+                }
+                return ids;
+            };
+            results.add(pool.submit(task));
+        }
+        long[] all = new long[threads * perThread];
+        int filled = 0;
+        for (Future<long[]> result : results) {
+            long[] ids = result.get();
+            for (int i = 1; i < ids.length; i++) {
+                assertThat(ids[i]).as("ids of one thread are increasing").isGreaterThan(ids[i - 1]);
+            }
+            System.arraycopy(ids, 0, all, filled, ids.length);
+            filled += ids.length;
+        }
+        pool.shutdown();
+        
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertThat(all[i]).as("duplicate id").isNotEqualTo(all[i - 1]);
+        }
+        assertThat(Arrays.stream(all).allMatch(id -> (id >>> SEQUENCE_BITS + 4 & 0xFF) == 7)).isTrue();
+    }
+    
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        // A cold JVM may not fill a millisecond at first, so keep going until several have overflowed
+        int maxIds = 5_000_000;
+        int generated = 0;
+        long previous = decode(generator.next());
+        int overflows = 0;
+        while (overflows < 100 && generated < maxIds) {
+            long id = decode(generator.next());
+            generated++;
+            assertThat(id).isGreaterThan(previous);
+            long sequence = id & ((1 << SEQUENCE_BITS) - 1);
+            long previousSequence = previous & ((1 << SEQUENCE_BITS) - 1);
+            if (previousSequence == (1 << SEQUENCE_BITS) - 1) {
+                // After the last sequence number of a millisecond the next id starts the following one
+                assertThat(sequence).isZero();
+                assertThat(millis(id)).isEqualTo(millis(previous) + 1);
+                overflows++;
+            }
+            previous = id;
+        }
+        assertThat(overflows).isEqualTo(100);
+        // Borrowed milliseconds run ahead of the clock by at most one per 1,024 ids
+        assertThat(millis(previous) - (System.currentTimeMillis() - 1704067200000L))
+                .isLessThanOrEqualTo(generated >> SEQUENCE_BITS);
+    }
+    
+    @Test
+    void generatedReferencesPassTheirCheckSymbol() {
+        for (int i = 0; i < 10_000; i++) {
+            String reference = generator.next();
+            assertThat(reference).hasSize(17).startsWith("BK-");
+            assertThat(generator.isPlausible(reference)).as(reference).isTrue();
+        }
+    }
+    
+    @Test
+    void singleSymbolTyposAndTranspositionsAreCaught() {
+        String reference = generator.next();
+        for (int i = 3; i < reference.length(); i++) {
+            for (char symbol : SYMBOLS.substring(0, i < reference.length() - 1 ? 32 : 37).toCharArray()) {
+                if (symbol != reference.charAt(i)) {
+                    String typo = reference.substring(0, i) + symbol + reference.substring(i + 1);
+                    assertThat(generator.isPlausible(typo)).as(typo).isFalse();
+                }
+            }
+        }
+        for (int i = 3; i < reference.length() - 2; i++) {
+            if (reference.charAt(i) != reference.charAt(i + 1)) {
+                String swapped = reference.substring(0, i) + reference.charAt(i + 1) + reference.charAt(i)
+                        + reference.substring(i + 2);
+                assertThat(generator.isPlausible(swapped)).as(swapped).isFalse();
+            }
+        }
+    }
+    
+    @Test
+    void referencesOfOtherShapesArePassedThrough() {
+        assertThat(generator.isPlausible("BK-1A2B3C4D")).isTrue();
+        assertThat(generator.isPlausible("BK-IIIIIIIIIIIII0")).isFalse();
+        assertThat(generator.isPlausible("BK-" + "Z".repeat(13) + "0")).isFalse();
+    }
+    
+    private static long millis(long id) {
+        return id >>> (SEQUENCE_BITS + 4 + 8);
+    }
+    
+    private static long decode(String reference) {
+        long id = 0;
+        for (int i = 3; i < reference.length() - 1; i++) {
+            id = id << 5 | SYMBOLS.indexOf(reference.charAt(i));
+        }
+        return id;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.dto.CursorPage;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:seat-ids;DB_CLOSE_DELAY=-1"
+})
+class BookingSeatIdsTest {
+    
+    private static final String EMAIL = "seats@example.com";
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private BookingExportService bookingExportService;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Test
+    void listsAndExportsCarryAssignedSeats() {
+        // Hamlet is seeded with a seat map, the rock concert has general admission
+        Event hamlet = eventRepository.findByNameContainingIgnoreCase("Hamlet").get(0);
+        Event concert = eventRepository.findByNameContainingIgnoreCase("Rock Concert").get(0);
+        BookingResponse seated = bookingService.createBooking(new BookingRequest(hamlet.getId(), "Ophelia", EMAIL, 3, null));
+        bookingService.createBooking(new BookingRequest(concert.getId(), "Ophelia", EMAIL, 2, null));
+        assertThat(seated.getSeatIds()).hasSize(3);
+        
+        List<BookingResponse> byEmail = bookingService.getBookingsByEmail(EMAIL);
+        assertThat(byEmail).hasSize(2);
+        assertThat(byEmail.get(0).getSeatIds()).containsExactlyInAnyOrderElementsOf(seated.getSeatIds());
+        assertThat(byEmail.get(1).getSeatIds()).isEmpty();
+        
+        CursorPage<BookingResponse> page = bookingService.getBookingsByEmailPage(EMAIL, null, 1);
+        assertThat(page.getItems()).singleElement()
+                .satisfies(response -> assertThat(response.getSeatIds()).containsExactlyInAnyOrderElementsOf(seated.getSeatIds()));
+        
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        bookingExportService.export(hamlet.getId(), BookingExportService.Format.CSV, csv);
+        String exported = csv.toString(StandardCharsets.UTF_8);
+        assertThat(exported).startsWith("bookingId,").contains(",seatIds\n");
+        seated.getSeatIds().forEach(seatId -> assertThat(exported).contains(seatId));
+        
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        bookingExportService.export(hamlet.getId(), BookingExportService.Format.NDJSON, json);
+        assertThat(json.toString(StandardCharsets.UTF_8)).contains("\"seatIds\":[\"" + seated.getSeatIds().get(0));
+    }
+}
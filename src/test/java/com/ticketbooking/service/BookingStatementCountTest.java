@@ -0,0 +1,128 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Booking;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statements per operation, counted through Hibernate statistics. Inserts must
+ * go out in JDBC batches (sequence ids, not IDENTITY) and listing a customer's
+ * bookings must cost the same number of statements for 10 bookings as for 1,000.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:statement-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class BookingStatementCountTest {
+    
+    private static final int BATCH_SIZE = 50;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void thousandBookingInsertsAreBatched() {
+        Event event = eventRepository.save(event("Batch Insert Event"));
+        List<Booking> bookings = bookings(event, "batch@example.com", 1_000);
+        
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(bookings));
+        
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1_000);
+        // One prepared statement per JDBC batch plus one sequence call per id block;
+        // an IDENTITY id or disabled batching would need one statement per row
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements).isLessThanOrEqualTo(2L * (1_000 / BATCH_SIZE) + 2);
+    }
+    
+    @Test
+    void listingBookingsByEmailCostsTheSameForAnyNumberOfBookings() {
+        Event event = eventRepository.save(event("Lookup Event"));
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.saveAll(bookings(event, "few@example.com", 10));
+            bookingRepository.saveAll(bookings(event, "many@example.com", 1_000));
+        });
+        
+        long few = statementsFor(() -> assertThat(bookingService.getBookingsByEmail("few@example.com")).hasSize(10));
+        long many = statementsFor(() -> assertThat(bookingService.getBookingsByEmail("many@example.com")).hasSize(1_000));
+        long page = statementsFor(() -> assertThat(bookingService.getBookingsByEmailPage("many@example.com", null, 100)
+                .getItems()).hasSize(100));
+        
+        // The booking/event view and one query for assigned seats
+        assertThat(few).isEqualTo(2);
+        assertThat(many).isEqualTo(few);
+        assertThat(page).isEqualTo(few);
+    }
+    
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private static List<Booking> bookings(Event event, String email, int count) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setEvent(event);
+            booking.setCustomerName("Customer " + i);
+            booking.setCustomerEmail(email);
+            booking.setNumberOfTickets(1);
+            booking.setTotalAmount(event.getTicketPrice());
+            booking.setBookingDate(LocalDateTime.now());
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+            booking.setBookingReference("REF-" + email + "-" + i);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+    
+    private static Event event(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setVenue("Test Hall");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setTicketPrice(40.0);
+        event.setTotalSeats(5_000);
+        event.setAvailableSeats(5_000);
+        event.setCategory("CONFERENCE");
+        event.setDescription("Statement count test");
+        return event;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.BulkBookingRequest;
+import com.ticketbooking.dto.BulkBookingResult;
+import com.ticketbooking.dto.SeatSectionRequest;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.BookingRepository;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk bookings with a BEST_EFFORT chunk of two items, so a handful of items
+ * spans several transactions.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "booking.bulk.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:bulk-booking;DB_CLOSE_DELAY=-1"
+})
+class BulkBookingTest {
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private SeatMap seatMap;
+    
+    @Autowired
+    private SeatInventory seatInventory;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Test
+    void aFailingItemInAllOrNothingReturnsEverySeat() {
+        Event general = eventService.createEvent(event("All Or Nothing Open Air"));
+        Event seated = eventService.createEvent(event("All Or Nothing Recital"));
+        seatMap.define(seated.getId(), List.of(new SeatSectionRequest("Stalls", 2, 10, 1)));
+        List<BookingRequest> items = List.of(
+                item(general, 3),
+                item(seated, 4),
+                item(general, 2),
+                item(general, 50));
+        
+        List<BulkBookingResult> results = bulk(items, BulkBookingRequest.Mode.ALL_OR_NOTHING, new ArrayList<>());
+        
+        assertThat(results).extracting(BulkBookingResult::getStatus).containsExactly(
+                BulkBookingResult.Status.ROLLED_BACK, BulkBookingResult.Status.ROLLED_BACK,
+                BulkBookingResult.Status.ROLLED_BACK, BulkBookingResult.Status.FAILED);
+        assertThat(results.get(3).getError()).contains("Not enough seats");
+        for (Event event : List.of(general, seated)) {
+            assertThat(seatInventory.getAvailableSeats(event.getId())).isEqualTo(20);
+            assertThat(eventRepository.findById(event.getId()).orElseThrow().getAvailableSeats()).isEqualTo(20);
+        }
+        assertThat(seatMap.describe(seated.getId())).singleElement()
+                .satisfies(section -> assertThat(section.getAvailableSeats()).isEqualTo(20));
+        assertThat(bookingRepository.findAll())
+                .noneMatch(booking -> List.of(general.getId(), seated.getId()).contains(booking.getEvent().getId()));
+    }
+    
+    @Test
+    void bestEffortCommitsEachChunkOnItsOwn() {
+        Event event = eventService.createEvent(event("Best Effort Festival"));
+        List<BookingRequest> items = List.of(
+                item(event, 5),
+                item(event, 5),
+                item(event, 50),
+                item(event, 5),
+                item(event, 1));
+        
+        List<List<BulkBookingResult>> chunks = new ArrayList<>();
+        List<BulkBookingResult> results = bulk(items, BulkBookingRequest.Mode.BEST_EFFORT, chunks);
+        
+        assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(results).extracting(BulkBookingResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        // The failed item does not roll back the item committed with it
+        assertThat(results).extracting(BulkBookingResult::getStatus).containsExactly(
+                BulkBookingResult.Status.BOOKED, BulkBookingResult.Status.BOOKED, BulkBookingResult.Status.FAILED,
+                BulkBookingResult.Status.BOOKED, BulkBookingResult.Status.BOOKED);
+        assertThat(seatInventory.getAvailableSeats(event.getId())).isEqualTo(4);
+        assertThat(bookingRepository.findAll()).filteredOn(booking -> booking.getEvent().getId().equals(event.getId()))
+                .hasSize(4);
+    }
+    
+    private List<BulkBookingResult> bulk(List<BookingRequest> items, BulkBookingRequest.Mode mode,
+                                         List<List<BulkBookingResult>> chunks) {
+        List<BulkBookingResult> results = new ArrayList<>();
+        bookingService.createBookingsBulk(items, mode, chunk -> {
+            chunks.add(chunk);
+            results.addAll(chunk);
+        });
+        return results;
+    }
+    
+    private static BookingRequest item(Event event, int tickets) {
+        return new BookingRequest(event.getId(), "Bulk Buyer", "bulk@example.com", tickets, null);
+    }
+    
+    private static Event event(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setVenue("Bulk Arena");
+        event.setEventDate(LocalDateTime.now().plusDays(21));
+        event.setTicketPrice(45.0);
+        event.setTotalSeats(20);
+        event.setCategory("FESTIVAL");
+        event.setDescription("Bulk booking test");
+        return event;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageType;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The conversation window holds the chat turns only: the search-analysis call a
+ * chat falls back to must not add its prompt and JSON reply to it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:conversation-memory;DB_CLOSE_DELAY=-1"
+})
+class ConversationMemoryTest {
+    
+    @Autowired
+    private AIBookingService aiBookingService;
+    
+    @Autowired
+    private SearchIntentRouter intentRouter;
+    
+    @Autowired
+    private ChatMemoryProvider chatMemoryProvider;
+    
+    @Test
+    void searchAnalysisStaysOutOfTheConversation() {
+        String query = "anything nice to do with my grandparents";
+        assertThat(intentRouter.route(query)).isEmpty();
+        
+        aiBookingService.processNaturalLanguageQuery("memory-test", query);
+        aiBookingService.processNaturalLanguageQuery("memory-test", "and something for the kids");
+        
+        List<ChatMessage> messages = chatMemoryProvider.get("memory-test").messages();
+        assertThat(messages).extracting(ChatMessage::type).containsExactly(ChatMessageType.SYSTEM,
+                ChatMessageType.USER, ChatMessageType.AI, ChatMessageType.USER, ChatMessageType.AI);
+        assertThat(messages).noneMatch(message -> message.text().contains("searchType"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventCacheTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    
+    private EventRepository eventRepository;
+    private EventCache eventCache;
+    
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        eventCache = new EventCache(eventRepository, mock(SeatInventory.class));
+        ReflectionTestUtils.setField(eventCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(eventCache, "maxResultSize", 3);
+        ReflectionTestUtils.setField(eventCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(eventCache, "inventoryMode", BookingService.InventoryMode.DATABASE);
+    }
+    
+    @Test
+    void rowLoadedBeforeAnEvictionIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        when(eventRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    // The row was read, then a booking changes its seats before the cache stores it
+                    Event stale = event(1L, "MUSIC", NOW, 10);
+                    loading.countDown();
+                    evicted.await(5, TimeUnit.SECONDS);
+                    return Optional.of(stale);
+                })
+                .thenReturn(Optional.of(event(1L, "MUSIC", NOW, 9)));
+        
+        CompletableFuture<Optional<Event>> load = CompletableFuture.supplyAsync(() -> eventCache.findById(1L));
+        loading.await(5, TimeUnit.SECONDS);
+        eventCache.evict(1L);
+        evicted.countDown();
+        assertThat(load.get(5, TimeUnit.SECONDS)).get().extracting(Event::getAvailableSeats).isEqualTo(10);
+        
+        assertThat(eventCache.findById(1L)).get().extracting(Event::getAvailableSeats).isEqualTo(9);
+        assertThat(eventCache.findById(1L)).get().extracting(Event::getAvailableSeats).isEqualTo(9);
+        verify(eventRepository, times(2)).findById(1L);
+    }
+    
+    @Test
+    void listLoadedBeforeACategoryChangeIsNotCached() throws Exception {
+        Event moved = event(1L, "MUSIC", NOW, 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        when(eventRepository.findByCategory("MUSIC"))
+                .thenAnswer(invocation -> {
+                    List<Event> stale = List.of(event(1L, "MUSIC", NOW, 10));
+                    loading.countDown();
+                    updated.await(5, TimeUnit.SECONDS);
+                    return stale;
+                })
+                .thenReturn(List.of());
+        
+        CompletableFuture<List<Event>> load = CompletableFuture.supplyAsync(() -> eventCache.findByCategory("MUSIC"));
+        loading.await(5, TimeUnit.SECONDS);
+        moved.setCategory("SPORTS");
+        eventCache.updated(moved, "MUSIC", NOW);
+        updated.countDown();
+        assertThat(load.get(5, TimeUnit.SECONDS)).hasSize(1);
+        
+        assertThat(eventCache.findByCategory("MUSIC")).isEmpty();
+        verify(eventRepository, times(2)).findByCategory("MUSIC");
+    }
+    
+    @Test
+    void dateWindowIsARangeQueryCutToTheExactBounds() {
+        LocalDateTime start = NOW.plusSeconds(30);
+        LocalDateTime end = NOW.plusDays(1).plusSeconds(30);
+        when(eventRepository.findByEventDateBetween(NOW, NOW.plusDays(1).plusMinutes(1))).thenReturn(new ArrayList<>(List.of(
+                event(3L, "MUSIC", NOW.plusDays(1).plusSeconds(45), 10),
+                event(1L, "MUSIC", NOW, 10),
+                event(2L, "MUSIC", NOW.plusHours(1), 10))));
+        
+        assertThat(eventCache.findByEventDateBetween(start, end)).extracting(Event::getId).containsExactly(2L);
+        // A later start within the same minute is served from the cached window
+        assertThat(eventCache.findByEventDateBetween(NOW, end)).extracting(Event::getId).containsExactly(1L, 2L);
+        
+        verify(eventRepository).findByEventDateBetween(any(), any());
+        verify(eventRepository, never()).findAll();
+        verify(eventRepository, never()).findAllById(any());
+    }
+    
+    @Test
+    void resultsLargerThanTheLimitAreNotCached() {
+        List<Event> catalog = List.of(event(1L, "MUSIC", NOW, 10), event(2L, "MUSIC", NOW, 10),
+                event(3L, "MUSIC", NOW, 10), event(4L, "MUSIC", NOW, 10));
+        when(eventRepository.findAll()).thenReturn(catalog);
+        
+        assertThat(eventCache.findAll()).hasSize(4);
+        assertThat(eventCache.findAll()).hasSize(4);
+        
+        verify(eventRepository, times(2)).findAll();
+        verify(eventRepository, never()).findAllById(any());
+        assertThat(eventCache.getStats()).containsEntry("resultSets", 0L);
+    }
+    
+    private static Event event(Long id, String category, LocalDateTime date, int availableSeats) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName("Event " + id);
+        event.setVenue("Hall");
+        event.setEventDate(date);
+        event.setTicketPrice(20.0);
+        event.setTotalSeats(10);
+        event.setAvailableSeats(availableSeats);
+        event.setCategory(category);
+        return event;
+    }
+}
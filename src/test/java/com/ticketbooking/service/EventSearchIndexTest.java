@@ -0,0 +1,62 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventSearchIndexTest {
+    
+    private EventSearchIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findAllNamesAndVenues()).thenReturn(List.of(
+                new Object[]{1L, "Summer Jazz Night", "Blue Hall"},
+                new Object[]{2L, "Jazz Brunch", "Garden Terrace"}));
+        index = new EventSearchIndex(eventRepository);
+        index.load();
+    }
+    
+    @Test
+    void trigramResultsFollowRenamesAndDeletes() {
+        assertThat(index.searchNames("jazz")).contains(List.of(1L, 2L));
+        
+        index.index(event(1L, "Winter Blues Night", "Blue Hall"));
+        // The stale "jazz" postings of event 1 are still there but must not match
+        assertThat(index.searchNames("jazz")).contains(List.of(2L));
+        assertThat(index.searchNames("blues")).contains(List.of(1L));
+        
+        index.remove(2L);
+        assertThat(index.searchNames("jazz")).contains(List.of());
+        assertThat(index.searchVenues("terrace")).contains(List.of());
+        
+        // Renamed back, the event is listed once although it now has two postings per trigram
+        index.index(event(1L, "Summer Jazz Night", "Blue Hall"));
+        assertThat(index.searchNames("jazz night")).contains(List.of(1L));
+        assertThat(index.searchNames("blues")).contains(List.of());
+    }
+    
+    @Test
+    void queriesShorterThanATrigramScanTheLiveDocuments() {
+        index.index(event(2L, "Brunch", "Garden Terrace"));
+        
+        assertThat(index.searchNames("JA")).contains(List.of(1L));
+        assertThat(index.searchVenues("ll")).contains(List.of(1L));
+    }
+    
+    private static Event event(Long id, String name, String venue) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        event.setVenue(venue);
+        return event;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanOutEventSearchTest {
+    
+    private final Event jazzNight = event(1L, "Summer Jazz Night", 1, 50);
+    private final Event jazzBrunch = event(2L, "Jazz Brunch", 2, 50);
+    private final Event soldOut = event(3L, "Jazz Finale", 3, 0);
+    private final Event opera = event(4L, "Opera Gala", 4, 50);
+    
+    private EventService eventService;
+    private ExecutorService searchExecutor;
+    private FanOutEventSearch search;
+    
+    @BeforeEach
+    void setUp() {
+        eventService = mock(EventService.class);
+        when(eventService.searchEventsByName(anyString())).thenReturn(List.of());
+        when(eventService.searchEventsByVenue(anyString())).thenReturn(List.of());
+        when(eventService.getEventsByCategory(anyString())).thenReturn(List.of());
+        when(eventService.getUpcomingEvents()).thenReturn(List.of(opera, jazzBrunch, jazzNight));
+        SearchIntentRouter intentRouter = new SearchIntentRouter(mock(EventRepository.class), new CatalogVersion(),
+                new SimpleMeterRegistry());
+        searchExecutor = Executors.newFixedThreadPool(4);
+        search = new FanOutEventSearch(eventService, intentRouter, searchExecutor);
+        ReflectionTestUtils.setField(search, "strategyTimeoutMs", 200L);
+        ReflectionTestUtils.setField(search, "topK", 20);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        searchExecutor.shutdownNow();
+    }
+    
+    @Test
+    void hitsAreMergedAndRankedByMatchingStrategies() {
+        when(eventService.searchEventsByName("jazz")).thenReturn(List.of(jazzNight, jazzBrunch, soldOut));
+        when(eventService.searchEventsByVenue("hall")).thenReturn(List.of(jazzBrunch));
+        when(eventService.getEventsByCategory("CONCERT")).thenReturn(List.of(jazzBrunch, opera));
+        
+        List<Event> results = search.search("any jazz concert in a hall");
+        
+        // Brunch matched name, venue and category; sold-out events are left out
+        assertThat(results).containsExactly(jazzBrunch, jazzNight, opera);
+    }
+    
+    @Test
+    void dateStrategyOnlyRunsForQueriesWithADatePhrase() {
+        when(eventService.searchEventsByName("jazz")).thenReturn(List.of(jazzNight));
+        
+        assertThat(search.search("something with jazz")).containsExactly(jazzNight);
+        verify(eventService, never()).getUpcomingEvents();
+        
+        // Upcoming events without another match follow in date order
+        assertThat(search.search("jazz this weekend")).containsExactly(jazzNight, jazzBrunch, opera);
+    }
+    
+    @Test
+    void timedOutStrategyIsCancelledAndTheOthersAreStillMerged() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(eventService.searchEventsByName("jazz")).thenReturn(List.of(jazzNight));
+        when(eventService.searchEventsByVenue("jazz")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of(opera);
+        });
+        
+        long start = System.nanoTime();
+        List<Event> results = search.search("jazz");
+        
+        assertThat(results).containsExactly(jazzNight);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(search.getStats()).containsEntry("strategyTimeouts", 1L);
+        // The slow lookup does not keep its executor thread
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    private static Event event(Long id, String name, int daysAhead, int availableSeats) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        event.setEventDate(LocalDateTime.now().plusDays(daysAhead));
+        event.setAvailableSeats(availableSeats);
+        return event;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ticketbooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.BookingResponse;
+import com.ticketbooking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+    
+    private static final BookingRequest REQUEST = new BookingRequest(1L, "Ada", "ada@example.com", 2, null);
+    
+    private IdempotencyRecordRepository repository;
+    private IdempotencyStore store;
+    
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        store = new IdempotencyStore(repository, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(store, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+    }
+    
+    @Test
+    void sameKeyConcurrentRequestsRunTheWriteExactlyOnce() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<BookingResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(CompletableFuture.supplyAsync(() -> store.execute(IdempotencyStore.Operation.CREATE_BOOKING,
+                    "key-1", REQUEST, () -> {
+                        writes.incrementAndGet();
+                        writing.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return response("BK-1");
+                    }), callers));
+        }
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Give the other callers time to reach the in-flight entry
+        Thread.sleep(50);
+        release.countDown();
+        
+        for (CompletableFuture<BookingResponse> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS).getBookingReference()).isEqualTo("BK-1");
+        }
+        callers.shutdown();
+        assertThat(writes).hasValue(1);
+        verify(repository, times(1)).save(any());
+        assertThat(store.findCompleted(IdempotencyStore.Operation.CREATE_BOOKING, "key-1", REQUEST))
+                .get().extracting(BookingResponse::getBookingReference).isEqualTo("BK-1");
+    }
+    
+    @Test
+    void failedWriteIsRunAgainOnRetry() {
+        assertThatThrownBy(() -> store.execute(IdempotencyStore.Operation.CREATE_BOOKING, "key-2", REQUEST, () -> {
+            throw new RuntimeException("Not enough seats available. Available: 0");
+        })).hasMessageContaining("Not enough seats");
+        
+        BookingResponse retried = store.execute(IdempotencyStore.Operation.CREATE_BOOKING, "key-2", REQUEST,
+                () -> response("BK-2"));
+        assertThat(retried.getBookingReference()).isEqualTo("BK-2");
+    }
+    
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        store.execute(IdempotencyStore.Operation.CREATE_BOOKING, "key-3", REQUEST, () -> response("BK-3"));
+        BookingRequest other = new BookingRequest(1L, "Ada", "ada@example.com", 4, null);
+        
+        assertThatThrownBy(() -> store.execute(IdempotencyStore.Operation.CREATE_BOOKING, "key-3", other,
+                () -> response("BK-4"))).hasMessageContaining("different request");
+        // Keys are per operation, cancelling with the same key is a separate write
+        assertThat(store.execute(IdempotencyStore.Operation.CANCEL_BOOKING, "key-3", other, () -> response("BK-3"))
+                .getBookingReference()).isEqualTo("BK-3");
+    }
+    
+    private static BookingResponse response(String reference) {
+        BookingResponse response = new BookingResponse();
+        response.setBookingReference(reference);
+        return response;
+    }
+}
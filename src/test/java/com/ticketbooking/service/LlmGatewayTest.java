@@ -0,0 +1,169 @@
+package com.ticketbooking.service;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmGatewayTest {
+    
+    private static final long OPEN_MS = 50;
+    
+    private final ChatLanguageModel model = messages -> {
+        String text = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+        if (text.startsWith("fail")) {
+            throw new IllegalStateException("provider error");
+        }
+        return Response.from(AiMessage.from("answer to " + text));
+    };
+    
+    // Generates until cancelled
+    private final AtomicBoolean upstreamCancelled = new AtomicBoolean();
+    private final CancellableStreamingModel endlessStream = (messages, handler) -> {
+        Thread generating = new Thread(() -> {
+            while (!upstreamCancelled.get()) {
+                handler.onNext("token ");
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        generating.start();
+        return () -> upstreamCancelled.set(true);
+    };
+    
+    private LlmGateway gateway;
+    
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+    }
+    
+    @Test
+    void successfulProbeClosesTheCircuit() throws InterruptedException {
+        gateway = new LlmGateway(model, null, 4, 16, 6000, 10, 1000, 1, OPEN_MS);
+        
+        assertThatThrownBy(() -> gateway.generate(ask("fail"))).isInstanceOf(LlmUnavailableException.class);
+        assertThatThrownBy(() -> gateway.generate(ask("while open")))
+                .hasMessageContaining("temporarily unavailable");
+        
+        Thread.sleep(OPEN_MS * 2);
+        assertThat(gateway.generate(ask("probe")).content().text()).isEqualTo("answer to probe");
+        assertThat(gateway.getStats()).containsEntry("circuit", "CLOSED");
+    }
+    
+    @Test
+    void probeTimingOutInTheQueueAllowsTheNextProbe() throws InterruptedException {
+        // One request a minute: after the failing call every later call waits in the queue for a permit
+        gateway = new LlmGateway(model, null, 4, 16, 1, 1, 100, 1, OPEN_MS);
+        
+        assertThatThrownBy(() -> gateway.generate(ask("fail"))).isInstanceOf(LlmUnavailableException.class);
+        Thread.sleep(OPEN_MS * 2);
+        
+        assertThatThrownBy(() -> gateway.generate(ask("first probe"))).hasMessageContaining("timed out");
+        // The circuit must not stay stuck on the probe that never reached the model
+        assertThatThrownBy(() -> gateway.generate(ask("second probe"))).hasMessageContaining("timed out");
+        assertThat(gateway.getStats()).containsEntry("shortCircuited", 0L);
+    }
+    
+    @Test
+    void timedOutCallKeepsItsSlotUntilTheModelReturns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // A provider client that does not give up when interrupted
+        ChatLanguageModel hanging = messages -> {
+            String text = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+            while (text.equals("hang")) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return Response.from(AiMessage.from("answer to " + text));
+        };
+        gateway = new LlmGateway(hanging, null, 1, 16, 6000, 10, 300, 5, OPEN_MS);
+        
+        assertThatThrownBy(() -> gateway.generate(ask("hang"))).hasMessageContaining("timed out");
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(gateway.getStats()).containsEntry("running", 1);
+        
+        CompletableFuture<Response<AiMessage>> next = gateway.submit(ask("next"));
+        Thread.sleep(50);
+        // The only pool thread is still inside the model, the next call must wait for it
+        assertThat(next).isNotDone();
+        
+        release.countDown();
+        assertThat(next.get(1, TimeUnit.SECONDS).content().text()).isEqualTo("answer to next");
+    }
+    
+    @Test
+    void cancellingAStreamStopsTheGenerationAndFreesItsSlot() throws Exception {
+        gateway = new LlmGateway(model, endlessStream, 1, 16, 6000, 10, 1000, 1, OPEN_MS);
+        CountDownLatch firstToken = new CountDownLatch(1);
+        CompletableFuture<Throwable> streamError = new CompletableFuture<>();
+        
+        LlmGateway.StreamHandle handle = gateway.stream(ask("stream"), new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                firstToken.countDown();
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                streamError.complete(error);
+            }
+        });
+        assertThat(firstToken.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(gateway.getStats()).containsEntry("running", 1);
+        
+        handle.cancel();
+        
+        assertThat(upstreamCancelled).isTrue();
+        // The only in-flight slot is free again, a call queued behind it would time out otherwise
+        assertThat(gateway.generate(ask("next")).content().text()).isEqualTo("answer to next");
+        assertThat(gateway.getStats()).containsEntry("streamsCancelled", 1L);
+        assertThat(streamError).isNotDone();
+    }
+    
+    @Test
+    void streamsAreShortCircuitedWhileTheCircuitIsOpen() {
+        gateway = new LlmGateway(model, endlessStream, 4, 16, 6000, 10, 1000, 1, OPEN_MS);
+        assertThatThrownBy(() -> gateway.generate(ask("fail"))).isInstanceOf(LlmUnavailableException.class);
+        CompletableFuture<Throwable> streamError = new CompletableFuture<>();
+        
+        gateway.stream(ask("stream"), new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                throw new AssertionError("The model must not be called while the circuit is open");
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                streamError.complete(error);
+            }
+        });
+        
+        assertThat(streamError).isCompletedWithValueMatching(error -> error instanceof LlmUnavailableException);
+    }
+    
+    private static List<ChatMessage> ask(String text) {
+        return List.of(UserMessage.from(text));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ticketbooking.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "booking.inventory.mode=MEMORY",
+        "spring.datasource.url=jdbc:h2:mem:contention-memory;DB_CLOSE_DELAY=-1",
+        "logging.level.com.ticketbooking=INFO"
+})
+class MemoryInventoryContentionTest extends AbstractSeatContentionTest {
+}
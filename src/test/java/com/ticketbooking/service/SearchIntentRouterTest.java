@@ -0,0 +1,83 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchIntentRouterTest {
+    
+    private static final List<Object[]> CATALOG = List.<Object[]>of(new Object[]{1L, "Summer Jazz Night", "Blue Hall"});
+    
+    private EventRepository eventRepository;
+    private CatalogVersion catalogVersion;
+    private SearchIntentRouter router;
+    
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        catalogVersion = new CatalogVersion();
+        router = new SearchIntentRouter(eventRepository, catalogVersion, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(router, "minConfidence", 0.7);
+    }
+    
+    @Test
+    void reportsLatencySavedPerRequestAsPercentiles() {
+        when(eventRepository.findAllNamesAndVenues()).thenReturn(CATALOG);
+        assertThat(router.route("something relaxing")).isEmpty();
+        router.recordLlmFallback(TimeUnit.MILLISECONDS.toNanos(400));
+        
+        for (int i = 0; i < 9; i++) {
+            assertThat(router.route("tickets for summer jazz night")).get()
+                    .extracting(SearchIntentRouter.SearchIntent::searchType).isEqualTo("NAME");
+        }
+        
+        // Nine of ten requests skipped a 400 ms analysis, the one that went to the LLM saved nothing
+        assertThat((double) router.getStats().get("savedMillisP50")).isBetween(300.0, 400.0);
+        assertThat((double) router.getStats().get("savedMillisP99")).isBetween(300.0, 420.0);
+        assertThat(router.getStats()).containsEntry("resolvedLocally", 9L).containsEntry("sentToLlm", 1L);
+    }
+    
+    @Test
+    void concurrentRequestsAfterACatalogChangeRebuildTheIndexOnce() throws Exception {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(eventRepository.findAllNamesAndVenues())
+                .thenReturn(CATALOG)
+                .thenAnswer(invocation -> {
+                    rebuilding.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return CATALOG;
+                });
+        router.route("warm up");
+        catalogVersion.bump();
+        
+        CompletableFuture<?> rebuild = CompletableFuture.runAsync(() -> router.route("summer jazz night"));
+        assertThat(rebuilding.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<?>> others = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // Served from the previous index while the rebuild runs
+            others.add(CompletableFuture.runAsync(() -> assertThat(router.match("at blue hall")).isPresent()));
+        }
+        CompletableFuture.allOf(others.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        
+        verify(eventRepository, times(2)).findAllNamesAndVenues();
+        verify(eventRepository, never()).findAll();
+    }
+}
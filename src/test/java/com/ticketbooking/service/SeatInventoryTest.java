@@ -0,0 +1,83 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryTest {
+    
+    private static final Long EVENT_ID = 1L;
+    
+    private EventRepository eventRepository;
+    private CatalogVersion catalogVersion;
+    private SeatInventory seatInventory;
+    
+    @BeforeEach
+    void setUp() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setAvailableSeats(10);
+        eventRepository = mock(EventRepository.class);
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event));
+        when(eventRepository.findAll()).thenReturn(List.of(event));
+        catalogVersion = new CatalogVersion();
+        seatInventory = new SeatInventory(eventRepository, catalogVersion);
+    }
+    
+    @Test
+    void loadKeepsCountersCreatedByEarlierRequests() {
+        // A request arriving before the ready event creates the counter on demand
+        assertThat(seatInventory.tryReserve(EVENT_ID, 3)).isTrue();
+        
+        // The table still shows 10 seats because the delta has not been flushed yet
+        seatInventory.load();
+        
+        assertThat(seatInventory.getAvailableSeats(EVENT_ID)).isEqualTo(7);
+        seatInventory.flush();
+        verify(eventRepository).adjustAvailableSeats(EVENT_ID, -3);
+    }
+    
+    @Test
+    void registerKeepsACounterCreatedByAnEarlierRequest() {
+        assertThat(seatInventory.tryReserve(EVENT_ID, 4)).isTrue();
+        
+        Event created = new Event();
+        created.setId(EVENT_ID);
+        created.setAvailableSeats(10);
+        seatInventory.register(created);
+        
+        assertThat(seatInventory.getAvailableSeats(EVENT_ID)).isEqualTo(6);
+        seatInventory.flush();
+        verify(eventRepository).adjustAvailableSeats(EVENT_ID, -4);
+    }
+    
+    @Test
+    void loadCreatesMissingCounters() {
+        seatInventory.load();
+        
+        assertThat(seatInventory.getAvailableSeats(EVENT_ID)).isEqualTo(10);
+        assertThat(seatInventory.tryReserve(EVENT_ID, 11)).isFalse();
+    }
+    
+    @Test
+    void sellingOutAndComingBackBumpTheAvailabilityVersion() {
+        assertThat(seatInventory.tryReserve(EVENT_ID, 9)).isTrue();
+        assertThat(catalogVersion.availability()).isZero();
+        
+        assertThat(seatInventory.tryReserve(EVENT_ID, 1)).isTrue();
+        assertThat(catalogVersion.availability()).isEqualTo(1);
+        
+        seatInventory.release(EVENT_ID, 2);
+        seatInventory.release(EVENT_ID, 1);
+        assertThat(catalogVersion.availability()).isEqualTo(2);
+    }
+}
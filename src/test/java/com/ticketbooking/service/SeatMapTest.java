@@ -0,0 +1,129 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.controller.EventController;
+import com.ticketbooking.dto.BookingRequest;
+import com.ticketbooking.dto.SeatSectionRequest;
+import com.ticketbooking.entity.Event;
+import com.ticketbooking.repository.EventRepository;
+import com.ticketbooking.repository.SeatSectionRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Seat map definition runs with the in-memory counters and a write-back interval long
+ * enough that the stored seat count lags every booking made here.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ai.stub.enabled=true",
+        "booking.inventory.mode=MEMORY",
+        "booking.inventory.flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:seat-map;DB_CLOSE_DELAY=-1"
+})
+class SeatMapTest {
+    
+    @Autowired
+    private SeatMap seatMap;
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private EventController eventController;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private SeatSectionRepository seatSectionRepository;
+    
+    @Test
+    void soldTicketsNotYetWrittenBackBlockTheSeatMap() {
+        Event event = eventService.createEvent(event("Sold Early"));
+        bookingService.createBooking(new BookingRequest(event.getId(), "Early Bird", "early@example.com", 2, null));
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAvailableSeats()).isEqualTo(20);
+        
+        assertThatThrownBy(() -> seatMap.define(event.getId(), List.of(section("A", 2, 10))))
+                .hasMessageContaining("after tickets have been sold");
+        assertThat(seatMap.hasSeatMap(event.getId())).isFalse();
+    }
+    
+    @Test
+    void duplicateSectionNamesAreRejected() {
+        Event event = eventService.createEvent(event("Twin Sections"));
+        
+        assertThatThrownBy(() -> seatMap.define(event.getId(), List.of(section("A", 1, 10), section("A", 1, 10))))
+                .hasMessageContaining("Duplicate section name: A");
+        assertThat(seatSectionRepository.findByEventId(event.getId())).isEmpty();
+    }
+    
+    @Test
+    void concurrentDefinitionsSaveOneSeatMap() throws Exception {
+        Event event = eventService.createEvent(event("Raced Layout"));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String name = "S" + i;
+            attempts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                    seatMap.define(event.getId(), List.of(section(name, 2, 10)));
+                    return true;
+                } catch (RuntimeException | InterruptedException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        
+        long defined = 0;
+        for (CompletableFuture<Boolean> attempt : attempts) {
+            if (attempt.get(5, TimeUnit.SECONDS)) {
+                defined++;
+            }
+        }
+        assertThat(defined).isEqualTo(1);
+        assertThat(seatSectionRepository.findByEventId(event.getId())).hasSize(1);
+        assertThat(seatMap.describe(event.getId())).hasSize(1);
+    }
+    
+    @Test
+    void sectionWithoutRowsFailsValidation() {
+        Event event = eventService.createEvent(event("Missing Rows"));
+        
+        assertThatThrownBy(() -> eventController.defineSeatMap(event.getId(), List.of(section("A", null, 20))))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("Number of rows is required");
+        assertThat(seatMap.hasSeatMap(event.getId())).isFalse();
+    }
+    
+    private static SeatSectionRequest section(String name, Integer rows, int seatsPerRow) {
+        return new SeatSectionRequest(name, rows, seatsPerRow, 1);
+    }
+    
+    private static Event event(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setVenue("Layout Hall");
+        event.setEventDate(LocalDateTime.now().plusDays(14));
+        event.setTicketPrice(30.0);
+        event.setTotalSeats(20);
+        event.setCategory("THEATER");
+        event.setDescription("Seat map test");
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketbooking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+    
+    private TimingWheel<Integer> wheel;
+    
+    @AfterEach
+    void tearDown() {
+        wheel.shutdown();
+    }
+    
+    @Test
+    void noTimeoutIsLostWhileTheWheelTurns() throws InterruptedException {
+        int threads = 4;
+        int perThread = 25_000;
+        Map<Integer, Boolean> fired = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        // Tiny wheel with a 1 ms tick: most delays land several revolutions ahead
+        wheel = new TimingWheel<>("test-wheel", 1, 8, 64, batch -> batch.forEach(item -> {
+            if (fired.put(item, Boolean.TRUE) != null) {
+                duplicates.incrementAndGet();
+            }
+        }));
+        
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    wheel.schedule(base + i, ThreadLocalRandom.current().nextInt(0, 50));
+                }
+                done.countDown();
+            }).start();
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (fired.size() < threads * perThread && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(fired).hasSize(threads * perThread);
+        assertThat(duplicates).hasValue(0);
+    }
+    
+    @Test
+    void itemsFireAfterTheirDelay() throws InterruptedException {
+        Map<Integer, Long> firedAt = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(2);
+        wheel = new TimingWheel<>("test-wheel", 5, 16, 64, batch -> batch.forEach(item -> {
+            firedAt.put(item, System.nanoTime());
+            fired.countDown();
+        }));
+        
+        long start = System.nanoTime();
+        wheel.schedule(100, 100);
+        wheel.schedule(300, 300);
+        
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        for (Integer delayMs : List.of(100, 300)) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(firedAt.get(delayMs) - start)).isGreaterThanOrEqualTo(delayMs);
+        }
+    }
+    
+    @Test
+    void failedBatchIsRetried() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch handled = new CountDownLatch(1);
+        wheel = new TimingWheel<>("test-wheel", 1, 8, 64, batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            handled.countDown();
+        });
+        
+        wheel.schedule(1, 0);
+        
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).hasValue(2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ticketbooking.service;
+
+import com.ticketbooking.dto.QueueStatus;
+import com.ticketbooking.entity.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomTest {
+    
+    private static final Long EVENT_ID = 1L;
+    
+    private WaitingRoom waitingRoom;
+    
+    @BeforeEach
+    void setUp() {
+        EventCache eventCache = mock(EventCache.class);
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setAvailableSeats(100);
+        when(eventCache.findById(EVENT_ID)).thenReturn(Optional.of(event));
+        
+        waitingRoom = new WaitingRoom(eventCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(waitingRoom, "enabled", true);
+        ReflectionTestUtils.setField(waitingRoom, "admitPerSecond", 10);
+        ReflectionTestUtils.setField(waitingRoom, "burst", 1);
+        ReflectionTestUtils.setField(waitingRoom, "tickMs", 100L);
+        ReflectionTestUtils.setField(waitingRoom, "admittedTtlSeconds", 60L);
+    }
+    
+    @Test
+    void admittedTokenLetsOnlyOneBookingThrough() {
+        // The only token in the bucket goes to the first caller, the second one queues
+        assertThat(waitingRoom.enter(EVENT_ID, null).isAdmitted()).isTrue();
+        QueueStatus queued = waitingRoom.enter(EVENT_ID, null);
+        assertThat(queued.isAdmitted()).isFalse();
+        assertThat(queued.getPosition()).isEqualTo(1L);
+        
+        waitingRoom.tick();
+        assertThat(waitingRoom.status(queued.getToken()).isAdmitted()).isTrue();
+        
+        assertThat(waitingRoom.enter(EVENT_ID, queued.getToken()).isAdmitted()).isTrue();
+        assertThatThrownBy(() -> waitingRoom.enter(EVENT_ID, queued.getToken()))
+                .hasMessageContaining("already been used");
+        // Polling stays possible and does not consume anything
+        assertThat(waitingRoom.status(queued.getToken()).isAdmitted()).isTrue();
+    }
+    
+    @Test
+    void waitingTokenIsNotConsumed() {
+        waitingRoom.enter(EVENT_ID, null);
+        QueueStatus queued = waitingRoom.enter(EVENT_ID, null);
+        
+        assertThat(waitingRoom.enter(EVENT_ID, queued.getToken()).isAdmitted()).isFalse();
+        waitingRoom.tick();
+        assertThat(waitingRoom.enter(EVENT_ID, queued.getToken()).isAdmitted()).isTrue();
+    }
+    
+    @Test
+    void tamperedTokenIsRejected() {
+        waitingRoom.enter(EVENT_ID, null);
+        String token = waitingRoom.enter(EVENT_ID, null).getToken();
+        String forged = EVENT_ID + ".7" + token.substring(token.lastIndexOf('.'));
+        
+        assertThatThrownBy(() -> waitingRoom.enter(EVENT_ID, forged))
+                .hasMessageContaining("Invalid queue token");
+    }
+}